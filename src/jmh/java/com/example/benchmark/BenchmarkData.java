@@ -0,0 +1,79 @@
+package com.example.benchmark;
+
+import com.example.UserServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    // Поднимает приложение на in-memory H2 без веб-сервера
+    static ConfigurableApplicationContext startApplication(String... args) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    // То же с веб-слоем на случайном порту: нужен, когда бенчмарку важна настройка Spring MVC
+    static ConfigurableApplicationContext startWebApplication(String... args) {
+        return startWebApplication(context -> {
+        }, args);
+    }
+
+    static ConfigurableApplicationContext startWebApplication(
+            ApplicationContextInitializer<ConfigurableApplicationContext> initializer, String... args) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0")
+                .initializers(initializer)
+                .run(args);
+    }
+
+    // WebFlux + R2DBC вариант из src/reactive; есть только в сборке -Pjmh,reactive, поэтому через рефлексию
+    static ConfigurableApplicationContext startReactiveApplication(String... args) {
+        SpringApplicationBuilder builder;
+        try {
+            builder = (SpringApplicationBuilder) Class.forName("com.example.reactive.ReactiveUserApplication")
+                    .getMethod("builder")
+                    .invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Reactive application is not on the classpath, build with -Pjmh,reactive", ex);
+        }
+        return builder.profiles("h2")
+                .properties("server.port=0")
+                .run(args);
+    }
+
+    // Файловая H2: данные не занимают кучу JVM, в которой идёт замер
+    static ConfigurableApplicationContext startApplicationOnFileDatabase(String name) {
+        return startApplication("--spring.datasource.url=jdbc:h2:file:./target/h2/" + name);
+    }
+
+    // Заполняет таблицу users синтетическими данными пачками через JDBC
+    static void seedUsers(JdbcTemplate jdbcTemplate, int rows) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{(long) i, "User " + i, "user" + i + "@example.com", 18 + i % 60, createdAt});
+            if (batch.size() == INSERT_BATCH_SIZE || i == rows) {
+                jdbcTemplate.batchUpdate(
+                        "insert into users (id, name, email, age, created_at) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.benchmark;
+
+import com.example.controller.UserController;
+import com.example.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Пропускная способность потокового экспорта на H2: одна операция выгружает всю таблицу,
+// rows/sec = rows / (ms/op) * 1000. Форк запускается с маленькой кучей намеренно —
+// потребление памяти экспортом не должно зависеть от числа строк.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class UserExportBenchmark {
+
+    @Param("1000000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserController userController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startApplicationOnFileDatabase("export-benchmark");
+        BenchmarkData.seedUsers(context.getBean(JdbcTemplate.class), rows);
+        userService = context.getBean(UserService.class);
+        userController = context.getBean(UserController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void exportRecords(Blackhole blackhole) {
+        userService.exportUsers(blackhole::consume);
+    }
+
+    @Benchmark
+    public long exportNdjson() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        userController.exportUsers().getBody().writeTo(out);
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
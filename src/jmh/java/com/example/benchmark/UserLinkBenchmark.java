@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import com.example.controller.UserController;
+import com.example.controller.UserLinkFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+// Ссылки для страницы из rows пользователей: linkTo(methodOn(...)) против UserLinkFactory.
+// Каждая операция моделирует отдельный HTTP-запрос со своим RequestAttributes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLinkBenchmark {
+
+    @Param({"1", "100"})
+    private int rows;
+
+    private final UserLinkFactory userLinkFactory = new UserLinkFactory();
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void methodOnLinks(Blackhole blackhole) {
+        bindRequest();
+        for (long id = 1; id <= rows; id++) {
+            blackhole.consume(linkTo(methodOn(UserController.class).getUserById(id, null, null)).withSelfRel());
+            blackhole.consume(linkTo(methodOn(UserController.class).updateUser(id, null, null)).withRel("update"));
+            blackhole.consume(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
+        }
+    }
+
+    @Benchmark
+    public void linkFactoryLinks(Blackhole blackhole) {
+        bindRequest();
+        for (long id = 1; id <= rows; id++) {
+            blackhole.consume(userLinkFactory.self(id));
+            blackhole.consume(userLinkFactory.user(id, "update"));
+            blackhole.consume(userLinkFactory.user(id, "delete"));
+        }
+    }
+
+    private static void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
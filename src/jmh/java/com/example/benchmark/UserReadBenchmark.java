@@ -0,0 +1,79 @@
+package com.example.benchmark;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Чтение сущностей с копированием в UserResponse против проекции прямо в UserRecord.
+// Аллокации смотреть с профилировщиком: -Djmh.args="-prof gc" (gc.alloc.rate.norm, байт на операцию).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserReadBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"1", "100", "1000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startApplication("--app.users.cache.enabled=false");
+        BenchmarkData.seedUsers(context.getBean(JdbcTemplate.class), ROWS);
+        userRepository = context.getBean(UserRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserResponse> entities() {
+        long after = ThreadLocalRandom.current().nextLong(ROWS - pageSize);
+        return readOnly.execute(status -> userRepository
+                .findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize), User.class)
+                .stream()
+                .map(UserReadBenchmark::toResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserResponse> records() {
+        long after = ThreadLocalRandom.current().nextLong(ROWS - pageSize);
+        return readOnly.execute(status -> userRepository
+                .findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize), UserRecord.class)
+                .stream()
+                .map(UserReadBenchmark::toResponse)
+                .toList());
+    }
+
+    private static UserResponse toResponse(User user) {
+        return new UserResponse(user.getId(), user.getName(), user.getEmail(), user.getAge(),
+                user.getCreatedAt(), user.getVersion());
+    }
+
+    private static UserResponse toResponse(UserRecord user) {
+        return new UserResponse(user.id(), user.name(), user.email(), user.age(), user.createdAt(), user.version());
+    }
+}
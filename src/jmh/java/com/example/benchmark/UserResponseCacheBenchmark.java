@@ -0,0 +1,162 @@
+package com.example.benchmark;
+
+import com.example.config.UserBinaryHttpMessageConverter;
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserResponse;
+import com.example.service.UserResponseCache;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Запись ответа GET /api/users/{id} без HTTP: disabled — EntityModel со ссылками и сериализация выбранным
+// конвертером на каждый запрос (как без кеша), heap/off-heap — поиск в UserResponseCache и копирование байтов,
+// как в UserResponseCacheAdvice при попадании. Сквозной HTTP-замер на одном ядре тонет в переключениях
+// контекста клиента и Tomcat. Аллокации: -Djmh.args="-prof gc" (gc.alloc.rate.norm, байт на запрос)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserResponseCacheBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"disabled", "heap", "off-heap"})
+    private String responseCache;
+
+    @Param({"hal", "protobuf"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private UserLinkFactory userLinkFactory;
+    private ObjectWriter halWriter;
+    private final UserBinaryHttpMessageConverter binaryConverter = new UserBinaryHttpMessageConverter();
+    private UserResponseCache cache;
+    private String variantPrefix;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkData.startWebApplication();
+        userLinkFactory = context.getBean(UserLinkFactory.class);
+        halWriter = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(EntityModel.class, MediaTypes.HAL_JSON))
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper().writer())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No HAL message converter registered"));
+        variantPrefix = format.equals("hal") ? MediaTypes.HAL_JSON + " " : UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF + " ";
+
+        bindRequest();
+        if (!responseCache.equals("disabled")) {
+            cache = new UserResponseCache(DataSize.ofMegabytes(64), responseCache.equals("off-heap"));
+            for (long id = 1; id <= USERS; id++) {
+                EntityModel<UserResponse> model = model(id);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                serialize(model, bytes);
+                cache.put(id, 0L, variant(model), bytes.toByteArray());
+            }
+            System.out.printf("%n%s, %s: %d bytes for %d users%n", responseCache, format, cache.weightedBytes(), USERS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        context.close();
+    }
+
+    @Benchmark
+    public long writeResponse() throws IOException {
+        long id = 1 + ThreadLocalRandom.current().nextInt(USERS);
+        CountingOutputStream out = new CountingOutputStream();
+        if (cache == null) {
+            serialize(model(id), out);
+            return out.count;
+        }
+        // Ключ в UserResponseCacheAdvice строится по self-ссылке модели; сама модель при попадании не пишется
+        EntityModel<UserResponse> model = model(id);
+        ByteBuffer bytes = cache.get(id, 0L, variant(model));
+        if (bytes.hasArray()) {
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+            Channels.newChannel(out).write(bytes);
+        }
+        return out.count;
+    }
+
+    // Та же модель, что у UserService.getUserById
+    private EntityModel<UserResponse> model(long id) {
+        UserResponse response = new UserResponse(id, "User " + id, "user" + id + "@example.com", 30, createdAt, 0L);
+        return EntityModel.of(response,
+                userLinkFactory.self(id),
+                userLinkFactory.users("all-users"),
+                userLinkFactory.user(id, "update"),
+                userLinkFactory.user(id, "delete"));
+    }
+
+    private String variant(EntityModel<UserResponse> model) {
+        return variantPrefix + model.getRequiredLink(IanaLinkRelations.SELF).getHref();
+    }
+
+    private void serialize(EntityModel<UserResponse> model, OutputStream out) throws IOException {
+        if (format.equals("hal")) {
+            halWriter.writeValue(out, model);
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        binaryConverter.write(model, null, UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+    }
+
+    // Один запрос на весь замер: разбор запроса и базовый URI ссылок одинаковы с кешем и без
+    private static void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.benchmark;
+
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserRecord;
+import com.example.dto.UserResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// HAL-сериализация страницы пользователей тем же ObjectMapper, которым пишет ответы Spring MVC.
+// Ссылки строятся так же, как в UserService.getAllUsers. writeHal — только запись готовой модели,
+// buildAndWriteHal — сборка EntityModel со ссылками и запись, как на каждый запрос; writeCompact —
+// компактный вид (?view=compact, Accept: application/json): массив UserRecord без обёрток и ссылок.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserLinkFactory userLinkFactory;
+    private ObjectWriter halWriter;
+    private ObjectWriter compactWriter;
+    private List<UserRecord> records;
+    private CollectionModel<EntityModel<UserResponse>> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startWebApplication();
+        userLinkFactory = context.getBean(UserLinkFactory.class);
+        halWriter = halObjectMapper(context).writer();
+        compactWriter = context.getBean(ObjectMapper.class).writerFor(new TypeReference<List<UserRecord>>() {});
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        records = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            records.add(new UserRecord(id, "User " + id, "user" + id + "@example.com", 30, createdAt, 0L));
+        }
+        bindRequest();
+        page = toPageModel(records);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        context.close();
+    }
+
+    @Benchmark
+    public long writeHal() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        halWriter.writeValue(out, page);
+        return out.count;
+    }
+
+    @Benchmark
+    public long buildAndWriteHal() throws IOException {
+        bindRequest();
+        CountingOutputStream out = new CountingOutputStream();
+        halWriter.writeValue(out, toPageModel(records));
+        return out.count;
+    }
+
+    @Benchmark
+    public long writeCompact() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        compactWriter.writeValue(out, records);
+        return out.count;
+    }
+
+    private CollectionModel<EntityModel<UserResponse>> toPageModel(List<UserRecord> rows) {
+        List<EntityModel<UserResponse>> content = new ArrayList<>(rows.size());
+        for (UserRecord user : rows) {
+            UserResponse response = new UserResponse(user.id(), user.name(), user.email(), user.age(),
+                    user.createdAt(), user.version());
+            content.add(EntityModel.of(response,
+                    userLinkFactory.self(user.id()),
+                    userLinkFactory.user(user.id(), "update"),
+                    userLinkFactory.user(user.id(), "delete")));
+        }
+        return CollectionModel.of(content,
+                userLinkFactory.usersPage(null, null, users, IanaLinkRelations.SELF_VALUE),
+                userLinkFactory.users("create-user"),
+                userLinkFactory.usersPage((long) users, null, users, IanaLinkRelations.NEXT_VALUE));
+    }
+
+    // Базовый URI ссылок UserLinkFactory кеширует на время запроса
+    private static void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    // Конвертер, который Spring MVC выбирает для application/hal+json
+    private static ObjectMapper halObjectMapper(ConfigurableApplicationContext context) {
+        return context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(CollectionModel.class, MediaTypes.HAL_JSON))
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No HAL message converter registered"));
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Servlet/JPA (Tomcat) против WebFlux/R2DBC (Netty) на одинаковых данных: обе версии засеваются
+// через свой POST /api/users/batch. Операция — пачка из concurrency одновременных запросов;
+// пропускная способность = concurrency / время пачки.
+// В конце прогона печатаются байты кучи, выделенные потоками сервера на запрос за измерительные итерации
+// (без клиента: -prof gc считает всю JVM), и пиковое число потоков (у Tomcat — поток и его стек на запрос).
+// Запуск: mvn -Pjmh,reactive package -Djmh.includes=UserStackBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserStackBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    // Рабочие потоки Tomcat (http-nio-auto-1-exec-N) и Netty (reactor-http-nio-N)
+    private static final List<String> SERVER_THREAD_PREFIXES = List.of("http-nio-", "reactor-http-");
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"64", "512"})
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private String usersUri;
+    private boolean measuring;
+    private long allocatedAtIterationStart;
+    private long allocatedBytes;
+    private long measuredRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] args = {"--app.users.cache.enabled=false", "--logging.level.root=WARN"};
+        context = stack.equals("reactive")
+                ? BenchmarkData.startReactiveApplication(args)
+                : BenchmarkData.startWebApplication(args);
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        usersUri = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/users";
+        seedUsers();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams params) {
+        measuring = params.getType() == IterationType.MEASUREMENT;
+        allocatedAtIterationStart = serverAllocatedBytes();
+    }
+
+    // Потоки, завершившиеся за итерацию, выпадают из суммы: у Tomcat простаивающий поток живёт 60 с
+    @TearDown(Level.Iteration)
+    public void finishIteration() {
+        if (measuring) {
+            allocatedBytes += serverAllocatedBytes() - allocatedAtIterationStart;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s: peak live threads %d, server allocation %d bytes/request%n", stack,
+                threadMXBean.getPeakThreadCount(), measuredRequests == 0 ? 0 : allocatedBytes / measuredRequests);
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() {
+        return sendConcurrently(() -> usersUri + "/" + (1 + ThreadLocalRandom.current().nextInt(USERS)));
+    }
+
+    @Benchmark
+    public int listPage() {
+        return sendConcurrently(() -> usersUri + "?size=20&after=" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    private int sendConcurrently(Supplier<String> uri) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uri.get()))
+                    .header("Accept", "application/hal+json")
+                    .GET()
+                    .build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != concurrency) {
+            throw new IllegalStateException((concurrency - ok) + " of " + concurrency + " requests failed");
+        }
+        if (measuring) {
+            measuredRequests += ok;
+        }
+        return ok;
+    }
+
+    private long serverAllocatedBytes() {
+        long total = 0;
+        for (ThreadInfo thread : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+            if (thread != null && SERVER_THREAD_PREFIXES.stream().anyMatch(thread.getThreadName()::startsWith)) {
+                total += Math.max(0, threadMXBean.getThreadAllocatedBytes(thread.getThreadId()));
+            }
+        }
+        return total;
+    }
+
+    // Через API, а не JDBC: у реактивной версии нет DataSource, и id выдаёт одна и та же последовательность
+    private void seedUsers() {
+        for (int from = 1; from <= USERS; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < from + SEED_BATCH_SIZE && i <= USERS; i++) {
+                if (i > from) {
+                    body.append(',');
+                }
+                body.append("{\"name\":\"User ").append(i)
+                        .append("\",\"email\":\"user").append(i)
+                        .append("@example.com\",\"age\":").append(18 + i % 60).append('}');
+            }
+            body.append(']');
+            HttpRequest request = HttpRequest.newBuilder(URI.create(usersUri + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Seeding failed: " + response.body());
+                }
+            } catch (Exception ex) {
+                throw new IllegalStateException("Seeding failed", ex);
+            }
+        }
+    }
+}
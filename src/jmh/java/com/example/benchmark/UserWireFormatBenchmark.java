@@ -0,0 +1,159 @@
+package com.example.benchmark;
+
+import com.example.config.UserBinaryHttpMessageConverter;
+import com.example.config.UserProtobufCodec;
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserPagePayload;
+import com.example.dto.UserResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// HAL JSON против CBOR/Smile/Protobuf на той же странице пользователей, что и в UserSerializationBenchmark.
+// encode пишет ответ так же, как Spring MVC (для бинарных форматов — через UserBinaryHttpMessageConverter),
+// decode читает заранее закодированную страницу тем, чем её прочитал бы клиент. Размер ответа печатается в setUp.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserWireFormatBenchmark {
+
+    private static final TypeReference<CollectionModel<EntityModel<UserResponse>>> HAL_PAGE = new TypeReference<>() {};
+
+    @Param({"1000", "100000"})
+    private int users;
+
+    @Param({"hal", "cbor", "smile", "protobuf"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper halMapper;
+    private final UserBinaryHttpMessageConverter binaryConverter = new UserBinaryHttpMessageConverter();
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final ObjectMapper smileMapper = new SmileMapper();
+    private MediaType mediaType;
+    private CollectionModel<EntityModel<UserResponse>> page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkData.startWebApplication();
+        halMapper = halObjectMapper(context);
+        mediaType = switch (format) {
+            case "hal" -> MediaTypes.HAL_JSON;
+            case "cbor" -> MediaType.APPLICATION_CBOR;
+            case "smile" -> UserBinaryHttpMessageConverter.APPLICATION_SMILE;
+            case "protobuf" -> UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF;
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+
+        UserLinkFactory userLinkFactory = context.getBean(UserLinkFactory.class);
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<EntityModel<UserResponse>> content = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            UserResponse response = new UserResponse(id, "User " + id, "user" + id + "@example.com", 30, createdAt, 0L);
+            content.add(EntityModel.of(response,
+                    userLinkFactory.self(id),
+                    userLinkFactory.user(id, "update"),
+                    userLinkFactory.user(id, "delete")));
+        }
+        page = CollectionModel.of(content,
+                userLinkFactory.usersPage(null, null, users, IanaLinkRelations.SELF_VALUE),
+                userLinkFactory.users("create-user"),
+                userLinkFactory.usersPage((long) users, null, users, IanaLinkRelations.NEXT_VALUE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        encoded = out.toByteArray();
+        System.out.printf("%n%s, %d users: %d bytes%n", format, users, encoded.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        write(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(encoded);
+        return switch (format) {
+            case "hal" -> halMapper.readValue(in, HAL_PAGE);
+            case "cbor" -> cborMapper.readValue(in, UserPagePayload.class);
+            case "smile" -> smileMapper.readValue(in, UserPagePayload.class);
+            default -> UserProtobufCodec.readPage(in);
+        };
+    }
+
+    private void write(OutputStream out) throws IOException {
+        if ("hal".equals(format)) {
+            halMapper.writeValue(out, page);
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        binaryConverter.write(page, null, mediaType, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+    }
+
+    private static ObjectMapper halObjectMapper(ConfigurableApplicationContext context) {
+        return context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(converter -> converter.canWrite(CollectionModel.class, MediaTypes.HAL_JSON))
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No HAL message converter registered"));
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Копирование полей в UserResponse из сущности и из проекции UserRecord.
+// Лежит в пакете сервиса, потому что convertToResponse пакетный.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private User user;
+    private UserRecord record;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.now();
+        user = new User("John Doe", "john@example.com", 30);
+        user.setId(42L);
+        user.setCreatedAt(createdAt);
+        user.setVersion(3L);
+        record = new UserRecord(42L, "John Doe", "john@example.com", 30, createdAt, 3L);
+    }
+
+    @Benchmark
+    public UserResponse fromEntity() {
+        return UserService.convertToResponse(user);
+    }
+
+    @Benchmark
+    public UserResponse fromRecord() {
+        return UserService.convertToResponse(record);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.service;
+
+import com.example.dto.UserSuggestion;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Задержка подсказок и память индекса. Индекс строится напрямую, без Spring и БД;
+// лежит в пакете сервиса, потому что NgramIndex пакетный.
+// Память печатается в TearDown: оценка индекса и прирост занятой кучи после полной сборки
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class UserSuggestBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Jane", "Michael", "Maria", "David", "Anna", "James", "Olga", "Robert", "Elena",
+            "William", "Irina", "Richard", "Natalia", "Thomas", "Sofia", "Daniel", "Alexander", "Ivan", "Dmitry"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis", "Wilson", "Anderson", "Taylor",
+            "Ivanov", "Petrov", "Sidorov", "Kuznetsov", "Popov", "Volkov", "Morozov", "Novikov", "Fedorov", "Orlov"};
+    private static final String[] DOMAINS = {"example.com", "mail.test", "corp.example.org", "inbox.test"};
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private NgramIndex index;
+    private long heapBefore;
+
+    @Setup
+    public void setUp() {
+        heapBefore = usedHeap();
+        index = new NgramIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 1; id <= users; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = first.toLowerCase() + "." + last.toLowerCase() + id + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            index.put(id, first + " " + last + " " + Long.toString(id, 36), email);
+        }
+        index.trimToSize();
+    }
+
+    @TearDown
+    public void printMemory() {
+        long retained = usedHeap() - heapBefore;
+        System.out.printf("%nSuggest index, %d users: estimated %d MB (%d MB per million), retained heap %d MB%n",
+                index.size(), index.estimatedBytes() >> 20,
+                index.estimatedBytes() * 1_000_000 / users >> 20, retained >> 20);
+    }
+
+    // Частое двухсимвольное начало слова: первая группа заполняется почти сразу
+    @Benchmark
+    public List<UserSuggestion> shortPrefix() {
+        return index.search("jo", 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> namePrefix() {
+        return index.search("michael wil", 10);
+    }
+
+    // Редкое сочетание: пересечение списков триграмм по самому короткому
+    @Benchmark
+    public List<UserSuggestion> emailExact() {
+        return index.search("ivan.orlov" + (users / 2), 10);
+    }
+
+    // Частая подстрока внутри слов: результаты только из последних групп, упирается в SCAN_BUDGET
+    @Benchmark
+    public List<UserSuggestion> infix() {
+        return index.search("ova", 10);
+    }
+
+    @Benchmark
+    public List<UserSuggestion> noMatch() {
+        return index.search("zzqx", 10);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.loadtest;
+
+// Операции смешанной нагрузки — по одной на запрос из users-api-examples.http
+enum Endpoint {
+    CREATE("create"),
+    GET("get"),
+    LIST("list"),
+    UPDATE("update"),
+    DELETE("delete");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+}
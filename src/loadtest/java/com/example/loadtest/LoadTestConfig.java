@@ -0,0 +1,74 @@
+package com.example.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Параметры прогона из аргументов вида --rows=10000 --rate.get=200 --budget.get.p99=50ms
+record LoadTestConfig(int rows,
+                      Duration warmup,
+                      Duration duration,
+                      Map<Endpoint, Integer> rates,
+                      Map<Endpoint, Duration> p99Budgets,
+                      Map<Endpoint, Duration> p999Budgets,
+                      double maxErrorRate) {
+
+    private static final Map<Endpoint, Integer> DEFAULT_RATES = Map.of(
+            Endpoint.CREATE, 20,
+            Endpoint.GET, 200,
+            Endpoint.LIST, 50,
+            Endpoint.UPDATE, 20,
+            Endpoint.DELETE, 5);
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        Map<Endpoint, Integer> rates = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Duration> p99Budgets = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Duration> p999Budgets = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            String key = endpoint.key();
+            rates.put(endpoint, Integer.parseInt(values.getOrDefault("rate." + key, String.valueOf(DEFAULT_RATES.get(endpoint)))));
+            p99Budgets.put(endpoint, duration(values.getOrDefault("budget." + key + ".p99", "100ms")));
+            p999Budgets.put(endpoint, duration(values.getOrDefault("budget." + key + ".p999", "500ms")));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+                Integer.parseInt(values.getOrDefault("rows", "10000")),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "30s")),
+                rates,
+                p99Budgets,
+                p999Budgets,
+                Double.parseDouble(values.getOrDefault("max-error-rate", "0.001")));
+        config.validate();
+        return config;
+    }
+
+    // Удаляем из верхней половины засеянных id, читаем и обновляем только нижнюю
+    long readableRows() {
+        return rows / 2;
+    }
+
+    private void validate() {
+        long plannedDeletes = rates.get(Endpoint.DELETE) * (warmup.toSeconds() + duration.toSeconds());
+        if (plannedDeletes > rows - readableRows()) {
+            throw new IllegalArgumentException("Delete rate would remove " + plannedDeletes
+                    + " users, but only " + (rows - readableRows()) + " are reserved for deletes; increase --rows");
+        }
+    }
+
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+}
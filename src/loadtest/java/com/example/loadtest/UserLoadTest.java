@@ -0,0 +1,285 @@
+package com.example.loadtest;
+
+import com.example.UserServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Нагрузочный прогон: поднимает приложение на in-memory H2, засевает rows пользователей и
+// отправляет запросы каждой операции с фиксированной частотой (открытая модель нагрузки).
+// Задержка считается от запланированного момента отправки, поэтому очередь перед перегруженным
+// сервером попадает в перцентили (без coordinated omission).
+// Запуск: mvn -Ploadtest verify -Dloadtest.args="--rows=20000 --rate.get=500 --budget.get.p99=20ms"
+public final class UserLoadTest {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final Path RESULT_DIR = Path.of("target", "loadtest");
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final ExecutorService httpExecutor;
+    private final URI baseUri;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong createdUsers = new AtomicLong();
+    private final AtomicLong nextDeleteId;
+
+    private UserLoadTest(LoadTestConfig config, URI baseUri) {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.httpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(httpExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.nextDeleteId = new AtomicLong(config.rows());
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        boolean withinBudget;
+        try {
+            seedUsers(context.getBean(JdbcTemplate.class), config.rows());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            UserLoadTest loadTest = new UserLoadTest(config, URI.create("http://localhost:" + port));
+            try {
+                withinBudget = loadTest.run();
+            } finally {
+                loadTest.httpExecutor.shutdownNow();
+            }
+        } finally {
+            context.close();
+        }
+
+        // Ненулевой код завершения валит сборку в exec-maven-plugin
+        if (!withinBudget) {
+            System.exit(1);
+        }
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        System.out.printf("Warming up for %s...%n", config.warmup());
+        runPhase(config.warmup());
+        stats.values().forEach(EndpointStats::reset);
+
+        System.out.printf("Measuring for %s...%n", config.duration());
+        runPhase(config.duration());
+
+        return report(System.out);
+    }
+
+    // Для каждой операции — свой поток-диспетчер, отправляющий запросы строго по расписанию
+    private void runPhase(Duration phase) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + phase.toNanos();
+        List<Thread> dispatchers = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            int rate = config.rates().get(endpoint);
+            if (rate <= 0) {
+                continue;
+            }
+            Thread dispatcher = new Thread(() -> dispatch(endpoint, rate, start, end), "loadtest-" + endpoint.key());
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        }
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+
+        // Дожидаемся ответов на уже отправленные запросы
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void dispatch(Endpoint endpoint, int rate, long start, long end) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        for (long intendedStart = start; intendedStart < end; intendedStart += interval) {
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            send(endpoint, intendedStart);
+        }
+    }
+
+    private void send(Endpoint endpoint, long intendedStart) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    boolean success = error == null && response.statusCode() / 100 == 2;
+                    endpointStats.record(System.nanoTime() - intendedStart, success);
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long readableId = 1 + random.nextLong(config.readableRows());
+        return switch (endpoint) {
+            case CREATE -> {
+                long n = createdUsers.incrementAndGet();
+                yield json(HttpRequest.newBuilder(uri("/api/users")),
+                        "POST", userJson("Load User " + n, "load" + n + "@example.com", 18 + random.nextInt(60)));
+            }
+            case GET -> HttpRequest.newBuilder(uri("/api/users/" + readableId))
+                    .header("Accept", "application/hal+json")
+                    .GET()
+                    .build();
+            case LIST -> HttpRequest.newBuilder(uri("/api/users?size=20&after=" + random.nextLong(config.readableRows())))
+                    .header("Accept", "application/hal+json")
+                    .GET()
+                    .build();
+            // Email не меняется: при случайном выборе id иначе были бы конфликты уникальности
+            case UPDATE -> json(HttpRequest.newBuilder(uri("/api/users/" + readableId)),
+                    "PUT", userJson("User " + readableId, "user" + readableId + "@example.com", 18 + random.nextInt(60)));
+            case DELETE -> HttpRequest.newBuilder(uri("/api/users/" + nextDeleteId.getAndDecrement()))
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .header("Accept", "application/hal+json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String userJson(String name, String email, int age) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"age\":" + age + "}";
+    }
+
+    private boolean report(PrintStream out) throws IOException {
+        Files.createDirectories(RESULT_DIR);
+        Map<String, Object> results = new LinkedHashMap<>();
+        List<String> violations = new ArrayList<>();
+
+        out.printf("%n%-8s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "budget");
+        for (Endpoint endpoint : Endpoint.values()) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            if (endpointStats.count() == 0) {
+                continue;
+            }
+            Histogram histogram = endpointStats.latencies();
+            double throughput = endpointStats.count() / (double) config.duration().toSeconds();
+            double p50 = millis(histogram.getValueAtPercentile(50));
+            double p99 = millis(histogram.getValueAtPercentile(99));
+            double p999 = millis(histogram.getValueAtPercentile(99.9));
+            double max = millis(histogram.getMaxValue());
+            double errorRate = endpointStats.errors() / (double) endpointStats.count();
+
+            Duration p99Budget = config.p99Budgets().get(endpoint);
+            Duration p999Budget = config.p999Budgets().get(endpoint);
+            boolean ok = true;
+            if (p99 > p99Budget.toMillis()) {
+                violations.add(endpoint.key() + " p99 " + p99 + " ms exceeds " + p99Budget.toMillis() + " ms");
+                ok = false;
+            }
+            if (p999 > p999Budget.toMillis()) {
+                violations.add(endpoint.key() + " p999 " + p999 + " ms exceeds " + p999Budget.toMillis() + " ms");
+                ok = false;
+            }
+            if (errorRate > config.maxErrorRate()) {
+                violations.add(endpoint.key() + " error rate " + errorRate + " exceeds " + config.maxErrorRate());
+                ok = false;
+            }
+
+            out.printf("%-8s %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9s%n",
+                    endpoint.key(), endpointStats.count(), endpointStats.errors(), throughput,
+                    p50, p99, p999, max, ok ? "ok" : "EXCEEDED");
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", endpointStats.count());
+            result.put("errors", endpointStats.errors());
+            result.put("throughput", throughput);
+            result.put("p50Ms", p50);
+            result.put("p99Ms", p99);
+            result.put("p999Ms", p999);
+            result.put("maxMs", max);
+            result.put("p99BudgetMs", p99Budget.toMillis());
+            result.put("p999BudgetMs", p999Budget.toMillis());
+            results.put(endpoint.key(), result);
+
+            // Полное распределение для HdrHistogram plotter
+            try (PrintStream hgrm = new PrintStream(RESULT_DIR.resolve(endpoint.key() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(RESULT_DIR.resolve("result.json").toFile(), results);
+
+        if (!violations.isEmpty()) {
+            out.println();
+            violations.forEach(violation -> out.println("Latency budget violated: " + violation));
+        }
+        return violations.isEmpty();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Явные id и перезапуск последовательности, чтобы новые пользователи не пересекались с засеянными
+    private static void seedUsers(JdbcTemplate jdbcTemplate, int rows) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{(long) i, "User " + i, "user" + i + "@example.com", 18 + i % 60, createdAt});
+            if (batch.size() == INSERT_BATCH_SIZE || i == rows) {
+                jdbcTemplate.batchUpdate(
+                        "insert into users (id, name, email, age, created_at) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence users_seq restart with " + (rows + 100));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Соединения для read-only транзакций — с реплик по кругу, остальные — с основной БД. Реплика, не отдавшая
+// соединение, выпадает из круга до следующей успешной проверки; без живых реплик чтение идёт в основную БД.
+// Решение принимается при получении соединения, поэтому снаружи нужен LazyConnectionDataSourceProxy:
+// JpaTransactionManager берёт соединение до того, как транзакция отмечена read-only
+public class DataSourceRouter implements MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRouter.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private final Target primary;
+    private final List<Target> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+    private final ScheduledExecutorService healthChecker;
+    private final DataSource dataSource = new RoutingDataSource();
+
+    public DataSourceRouter(HikariDataSource primary, List<HikariDataSource> replicas, Duration healthCheckInterval) {
+        this.primary = new Target(primary);
+        this.replicas = replicas.stream().map(Target::new).toList();
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Чтения внутри блока идут в основную БД (read-your-writes, заполнение кешей, которые живут дольше
+    // отставания реплики). Вложенные блоки восстанавливают внешнее состояние
+    public static PrimaryPin pinToPrimary() {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        };
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || PRIMARY_PINNED.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Target replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    private void checkReplicas() {
+        for (Target replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} is back in rotation", replica.name());
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private static void markDown(Target replica, SQLException e) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} taken out of rotation: {}", replica.name(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.pool.close();
+    }
+
+    // datasource.routing.connections (по пулам), fallbacks — чтения в основную БД без живых реплик,
+    // replica.healthy (1/0)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Target target : Stream.concat(Stream.of(primary), replicas.stream()).toList()) {
+            FunctionCounter.builder("datasource.routing.connections", target.connections, LongAdder::sum)
+                    .tag("pool", target.name())
+                    .description("Connections handed out by the read/write router")
+                    .register(registry);
+        }
+        FunctionCounter.builder("datasource.routing.fallbacks", fallbacks, LongAdder::sum)
+                .description("Read-only connections taken from the primary because no replica was available")
+                .register(registry);
+        for (Target replica : replicas) {
+            Gauge.builder("datasource.routing.replica.healthy", replica, target -> target.healthy ? 1 : 0)
+                    .tag("pool", replica.name())
+                    .description("Whether the replica is in the read rotation")
+                    .register(registry);
+        }
+    }
+
+    public interface PrimaryPin extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Target {
+
+        private final HikariDataSource pool;
+        private final LongAdder connections = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Target(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private String name() {
+            return pool.getPoolName();
+        }
+
+        private Connection getConnection() throws SQLException {
+            Connection connection = pool.getConnection();
+            connections.increment();
+            return connection;
+        }
+    }
+
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return DataSourceRouter.this.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Routed connections use the credentials of each pool");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Основная БД и реплики (app.datasource.routing) вместо одного пула Spring Boot. Пулы — не бины:
+// единственный DataSource в контексте — маршрутизатор, его и получают JPA, JdbcTemplate и health
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public DataSourceRouter dataSourceRouter(DataSourceProperties dataSourceProperties,
+                                             DataSourceRoutingProperties routingProperties,
+                                             Environment environment,
+                                             MeterRegistry meterRegistry) {
+        // spring.datasource.hikari — общие настройки всех пулов; метрики hikaricp.* с тегом pool
+        HikariConfig poolConfig = Binder.get(environment)
+                .bindOrCreate("spring.datasource.hikari", Bindable.of(HikariConfig.class));
+        poolConfig.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        poolConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        HikariDataSource primary = new HikariDataSource(pool(poolConfig, "primary", dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()));
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<DataSourceRoutingProperties.Replica> replicaProperties = routingProperties.replicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = replicaProperties.get(i);
+            HikariConfig config = pool(poolConfig, "replica-" + (i + 1), replica.url(),
+                    replica.username() != null ? replica.username() : dataSourceProperties.determineUsername(),
+                    replica.password() != null ? replica.password() : dataSourceProperties.determinePassword());
+            // Недоступная при старте реплика не роняет приложение: проверка здоровья вернёт её в круг позже
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new DataSourceRouter(primary, replicas, routingProperties.healthCheckInterval());
+    }
+
+    // Соединение у маршрутизатора берётся при первом запросе, а не в начале транзакции: к этому моменту
+    // менеджер транзакций уже отметил её read-only, и чтение уходит на реплику
+    @Bean
+    public DataSource dataSource(DataSourceRouter dataSourceRouter) {
+        return new LazyConnectionDataSourceProxy(dataSourceRouter.dataSource());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(DataSourceRoutingProperties routingProperties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(routingProperties.readYourWritesWindow()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(!routingProperties.readYourWritesWindow().isZero());
+        return registration;
+    }
+
+    private static HikariConfig pool(HikariConfig poolConfig, String name, String url, String username, String password) {
+        HikariConfig config = new HikariConfig();
+        poolConfig.copyStateTo(config);
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        return config;
+    }
+}
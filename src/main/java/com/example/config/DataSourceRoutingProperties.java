@@ -0,0 +1,22 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// app.datasource.routing: реплики для read-only транзакций; основная БД — spring.datasource
+@ConfigurationProperties("app.datasource.routing")
+public record DataSourceRoutingProperties(boolean enabled,
+                                          List<Replica> replicas,
+                                          @DefaultValue("5s") Duration healthCheckInterval,
+                                          @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    public DataSourceRoutingProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+    }
+
+    // Без username/password — те же, что у основной БД
+    public record Replica(String url, String username, String password) {}
+}
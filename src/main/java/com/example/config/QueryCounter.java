@@ -0,0 +1,28 @@
+package com.example.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Считает SQL-запросы текущего HTTP-запроса. Вне start()/stop() (фоновые задачи, потоковый экспорт) ничего не считает
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.config;
+
+import com.example.dto.UserPagePayload;
+import com.example.dto.UserPayload;
+import com.example.dto.UserRecord;
+import com.example.dto.UserResponse;
+import com.example.service.UserRecordPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+// Ответы с пользователями для внутренних клиентов: application/cbor, application/x-jackson-smile и
+// application/x-protobuf вместо HAL JSON. Ссылки отбрасываются, пользователь пишется как UserPayload,
+// страница — как UserPagePayload с курсорами. Страницы контроллер отдаёт как UserRecordPage, без HAL-модели;
+// CollectionModel остаётся для остальных вызывающих. Регистрируется в WebConfig
+public class UserBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final ObjectMapper smileMapper = new SmileMapper();
+
+    public UserBinaryHttpMessageConverter() {
+        super(MediaType.APPLICATION_CBOR, APPLICATION_SMILE, APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserResponse.class.isAssignableFrom(clazz)
+                || UserRecordPage.class.isAssignableFrom(clazz)
+                || EntityModel.class.isAssignableFrom(clazz)
+                || CollectionModel.class.isAssignableFrom(clazz);
+    }
+
+    // Тела запросов в бинарных форматах читают стандартные конвертеры Jackson
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    // По объявленному типу отсекаются EntityModel с другим содержимым (например, UserCreateStatus);
+    // для ResponseEntity<?> тип неизвестен, и решает writeInternal
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType) || !supports(clazz)) {
+            return false;
+        }
+        if (type == null) {
+            return true;
+        }
+        ResolvableType declared = ResolvableType.forType(type);
+        Class<?> raw = declared.resolve();
+        if (raw == null || !supports(raw) || UserRecordPage.class.isAssignableFrom(raw)) {
+            return true;
+        }
+        ResolvableType content = CollectionModel.class.isAssignableFrom(raw) ? declared.getGeneric(0) : declared;
+        if (EntityModel.class.isAssignableFrom(content.toClass())) {
+            content = content.getGeneric(0);
+        }
+        Class<?> contentClass = content.resolve();
+        return contentClass == null || contentClass == Object.class || UserResponse.class.isAssignableFrom(contentClass);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        Object payload = toPayload(body);
+        if (payload == null) {
+            throw new HttpMessageNotWritableException("No binary representation for " + body.getClass().getName());
+        }
+
+        OutputStream out = outputMessage.getBody();
+        if (APPLICATION_PROTOBUF.isCompatibleWith(contentType)) {
+            if (payload instanceof UserPagePayload page) {
+                UserProtobufCodec.writePage(page, out);
+            } else {
+                UserProtobufCodec.writeUser((UserPayload) payload, out);
+            }
+        } else if (APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            smileMapper.writeValue(out, payload);
+        } else {
+            cborMapper.writeValue(out, payload);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+
+    // null — содержимое не пользователь
+    static Object toPayload(Object body) {
+        if (body instanceof UserRecordPage page) {
+            List<UserPayload> users = new ArrayList<>(page.users().size());
+            for (UserRecord user : page.users()) {
+                users.add(UserPayload.of(user));
+            }
+            return new UserPagePayload(users, page.nextAfter(), page.prevBefore());
+        }
+        if (body instanceof CollectionModel<?> collection) {
+            List<UserPayload> users = new ArrayList<>();
+            for (Object item : collection.getContent()) {
+                UserPayload user = toUser(item);
+                if (user == null) {
+                    return null;
+                }
+                users.add(user);
+            }
+            Long nextAfter = collection.hasLink(IanaLinkRelations.NEXT) && !users.isEmpty()
+                    ? users.get(users.size() - 1).id() : null;
+            Long prevBefore = collection.hasLink(IanaLinkRelations.PREV) && !users.isEmpty()
+                    ? users.get(0).id() : null;
+            return new UserPagePayload(users, nextAfter, prevBefore);
+        }
+        return toUser(body);
+    }
+
+    private static UserPayload toUser(Object body) {
+        Object content = body instanceof EntityModel<?> model ? model.getContent() : body;
+        return content instanceof UserResponse user ? UserPayload.of(user) : null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.config;
+
+import com.example.dto.UserPagePayload;
+import com.example.dto.UserPayload;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Кодирование по схеме proto/users.proto без сгенерированных классов: сообщения пишутся прямо из
+// UserPayload/UserPagePayload, без промежуточных объектов protobuf. Клиенты могут генерировать код из той же схемы
+public final class UserProtobufCodec {
+
+    private static final int USER_ID = 1;
+    private static final int USER_NAME = 2;
+    private static final int USER_EMAIL = 3;
+    private static final int USER_AGE = 4;
+    private static final int USER_CREATED_AT_MICROS = 5;
+    private static final int USER_VERSION = 6;
+
+    private static final int PAGE_USERS = 1;
+    private static final int PAGE_NEXT_AFTER = 2;
+    private static final int PAGE_PREV_BEFORE = 3;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private UserProtobufCodec() {}
+
+    public static void writeUser(UserPayload user, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        writeUserFields(user, output);
+        output.flush();
+    }
+
+    public static void writePage(UserPagePayload page, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        for (UserPayload user : page.users()) {
+            output.writeTag(PAGE_USERS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(userSize(user));
+            writeUserFields(user, output);
+        }
+        if (page.nextAfter() != null) {
+            output.writeInt64(PAGE_NEXT_AFTER, page.nextAfter());
+        }
+        if (page.prevBefore() != null) {
+            output.writeInt64(PAGE_PREV_BEFORE, page.prevBefore());
+        }
+        output.flush();
+    }
+
+    public static UserPayload readUser(InputStream in) throws IOException {
+        return readUser(CodedInputStream.newInstance(in));
+    }
+
+    public static UserPagePayload readPage(InputStream in) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(in);
+        List<UserPayload> users = new ArrayList<>();
+        Long nextAfter = null;
+        Long prevBefore = null;
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case PAGE_USERS -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    users.add(readUser(input));
+                    input.popLimit(limit);
+                }
+                case PAGE_NEXT_AFTER -> nextAfter = input.readInt64();
+                case PAGE_PREV_BEFORE -> prevBefore = input.readInt64();
+                default -> input.skipField(tag);
+            }
+        }
+        return new UserPagePayload(users, nextAfter, prevBefore);
+    }
+
+    // proto3: поля со значением по умолчанию не пишутся, у optional — пишется любое заданное значение
+    private static void writeUserFields(UserPayload user, CodedOutputStream output) throws IOException {
+        if (user.id() != 0) {
+            output.writeInt64(USER_ID, user.id());
+        }
+        if (user.name() != null && !user.name().isEmpty()) {
+            output.writeString(USER_NAME, user.name());
+        }
+        if (user.email() != null && !user.email().isEmpty()) {
+            output.writeString(USER_EMAIL, user.email());
+        }
+        if (user.age() != null) {
+            output.writeInt32(USER_AGE, user.age());
+        }
+        if (user.createdAtMicros() != 0) {
+            output.writeInt64(USER_CREATED_AT_MICROS, user.createdAtMicros());
+        }
+        if (user.version() != null) {
+            output.writeInt64(USER_VERSION, user.version());
+        }
+    }
+
+    private static int userSize(UserPayload user) {
+        int size = 0;
+        if (user.id() != 0) {
+            size += CodedOutputStream.computeInt64Size(USER_ID, user.id());
+        }
+        if (user.name() != null && !user.name().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(USER_NAME, user.name());
+        }
+        if (user.email() != null && !user.email().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(USER_EMAIL, user.email());
+        }
+        if (user.age() != null) {
+            size += CodedOutputStream.computeInt32Size(USER_AGE, user.age());
+        }
+        if (user.createdAtMicros() != 0) {
+            size += CodedOutputStream.computeInt64Size(USER_CREATED_AT_MICROS, user.createdAtMicros());
+        }
+        if (user.version() != null) {
+            size += CodedOutputStream.computeInt64Size(USER_VERSION, user.version());
+        }
+        return size;
+    }
+
+    private static UserPayload readUser(CodedInputStream input) throws IOException {
+        long id = 0;
+        String name = "";
+        String email = "";
+        Integer age = null;
+        long createdAtMicros = 0;
+        Long version = null;
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case USER_ID -> id = input.readInt64();
+                case USER_NAME -> name = input.readStringRequireUtf8();
+                case USER_EMAIL -> email = input.readStringRequireUtf8();
+                case USER_AGE -> age = input.readInt32();
+                case USER_CREATED_AT_MICROS -> createdAtMicros = input.readInt64();
+                case USER_VERSION -> version = input.readInt64();
+                default -> input.skipField(tag);
+            }
+        }
+        return new UserPayload(id, name, email, age, createdAtMicros, version);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Бинарный конвертер пользователей встаёт перед стандартными CBOR/Smile, но после JSON и HAL:
+    // при Accept: */* и без Accept первым подходящим остаётся JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int index = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter
+                    || converters.get(i) instanceof MappingJackson2SmileHttpMessageConverter) {
+                index = i;
+                break;
+            }
+        }
+        converters.add(index, new UserBinaryHttpMessageConverter());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.controller;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.http.ResponseEntity;
@@ -14,12 +15,19 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RestController
 public class HomeController {
 
+    private final UserLinkFactory userLinkFactory;
+
+    @Autowired
+    public HomeController(UserLinkFactory userLinkFactory) {
+        this.userLinkFactory = userLinkFactory;
+    }
+
     @GetMapping("/")
     public ResponseEntity<RepresentationModel<?>> home() {
         RepresentationModel<?> model = new RepresentationModel<>();
 
         // Добавляем ссылки на основные API endpoints
-        model.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("users"));
+        model.add(userLinkFactory.users("users"));
         model.add(linkTo(methodOn(HomeController.class).apiDocumentation()).withRel("api-docs"));
         model.add(linkTo(methodOn(HomeController.class).swaggerUI()).withRel("swagger-ui"));
 
@@ -30,8 +38,8 @@ public class HomeController {
     public ResponseEntity<RepresentationModel<?>> apiDocumentation() {
         RepresentationModel<?> model = new RepresentationModel<>();
 
-        model.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("get-all-users"));
-        model.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create-user"));
+        model.add(userLinkFactory.users("get-all-users"));
+        model.add(userLinkFactory.users("create-user"));
         model.add(Link.of("/swagger-ui.html", "swagger-ui"));
         model.add(Link.of("/v3/api-docs", "openapi-spec"));
 
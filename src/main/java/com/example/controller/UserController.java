@@ -1,33 +1,133 @@
 package com.example.controller;
 
+import com.example.config.UserBinaryHttpMessageConverter;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserBulkFilter;
+import com.example.dto.UserBulkOperationResponse;
+import com.example.dto.UserBulkUpdateRequest;
+import com.example.dto.UserCreateStatus;
+import com.example.dto.UserImportResponse;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.dto.UserSearchCriteria;
+import com.example.dto.UserStatsResponse;
+import com.example.dto.UserSuggestion;
+import com.example.exception.UserCreateRejectedException;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
+import com.example.service.UserBulkService;
+import com.example.service.UserCreateQueue;
+import com.example.service.UserETags;
+import com.example.service.UserImportService;
+import com.example.service.UserRecordPage;
 import com.example.service.UserService;
+import com.example.service.UserStats;
+import com.example.service.UserSuggestIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "User Management", description = "APIs for managing users")
 public class UserController {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String CSV_MEDIA_TYPE = "text/csv";
+    private static final String COMPACT_VARIANT = "compact";
+    private static final List<MediaType> USER_MEDIA_TYPES = List.of(
+            MediaTypes.HAL_JSON,
+            MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR,
+            UserBinaryHttpMessageConverter.APPLICATION_SMILE,
+            UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF);
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserBulkService userBulkService;
+    // null, если асинхронное создание выключено (app.users.async-create.enabled)
+    private final UserCreateQueue userCreateQueue;
+    // null, если подсказки выключены (app.users.suggest.enabled)
+    private final UserSuggestIndex userSuggestIndex;
+    // null, если статистика выключена (app.users.stats.enabled)
+    private final UserStats userStats;
+    private final ObjectWriter ndjsonWriter;
+
+    @Value("${app.users.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.users.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.users.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.users.suggest.default-limit:10}")
+    private int defaultSuggestLimit;
+
+    @Value("${app.users.suggest.max-limit:50}")
+    private int maxSuggestLimit;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          UserImportService userImportService,
+                          UserBulkService userBulkService,
+                          ObjectProvider<UserCreateQueue> userCreateQueue,
+                          ObjectProvider<UserSuggestIndex> userSuggestIndex,
+                          ObjectProvider<UserStats> userStats,
+                          ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.userBulkService = userBulkService;
+        this.userCreateQueue = userCreateQueue.getIfAvailable();
+        this.userSuggestIndex = userSuggestIndex.getIfAvailable();
+        this.userStats = userStats.getIfAvailable();
+        this.ndjsonWriter = objectMapper.writerFor(UserRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @Operation(
@@ -40,42 +140,386 @@ public class UserController {
                     description = "User created successfully",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = UserResponse.class))),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Asynchronous mode: request queued, poll the Location for the outcome",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserCreateStatus.class))),
             @ApiResponse(
                     responseCode = "400",
                     description = "Invalid input or email already exists",
                     content = @Content),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Asynchronous mode: create queue is full",
+                    content = @Content),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Asynchronous mode: service is shutting down",
                     content = @Content)
     })
     @PostMapping
-    public ResponseEntity<EntityModel<UserResponse>> createUser(
+    public ResponseEntity<?> createUser(
             @Parameter(description = "User data to create", required = true)
             @Valid @RequestBody UserRequest userRequest) {
 
+        if (userCreateQueue != null) {
+            EntityModel<UserCreateStatus> status = userCreateQueue.enqueue(userRequest);
+            return ResponseEntity.accepted()
+                    .location(status.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                    .body(status);
+        }
+
         EntityModel<UserResponse> userResponse = userService.createUser(userRequest);
-        return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), userResponse);
+    }
+
+    @Operation(
+            summary = "Get create request status",
+            description = "Reports the outcome of a user create request accepted in asynchronous mode"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Request found, see its status",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserCreateStatus.class))),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Unknown or expired request, or asynchronous mode is disabled",
+                    content = @Content)
+    })
+    @GetMapping("/create-requests/{requestId}")
+    public ResponseEntity<?> getCreateRequest(
+            @Parameter(description = "ID of the create request", required = true)
+            @PathVariable String requestId) {
+
+        return Optional.ofNullable(userCreateQueue)
+                .flatMap(queue -> queue.getStatus(requestId))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Create request not found: " + requestId));
+    }
+
+    @Operation(
+            summary = "Create users in bulk",
+            description = "Creates a list of users in one transaction and reports the outcome of every item"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see per-item results",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserBatchResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty batch or batch size exceeds the limit",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatchResponse> createUsers(
+            @Parameter(description = "Users to create", required = true)
+            @RequestBody List<UserRequest> userRequests) {
+
+        if (userRequests.isEmpty()) {
+            throw new IllegalArgumentException("Batch should contain at least one user");
+        }
+        if (userRequests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size should not exceed " + maxBatchSize);
+        }
+
+        UserBatchResponse response = userService.createUsers(userRequests);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Import users from CSV",
+            description = "Streams a CSV body (name,email,age; header optional) into the database in chunks. "
+                    + "Rows failing validation or with an existing email are rejected, the rest are imported"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import finished, see counters and rejected lines",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserImportResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Header does not contain name, email and age columns",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = CSV_MEDIA_TYPE)
+    public ResponseEntity<UserImportResponse> importUsers(
+            @Parameter(description = "CSV file", required = true)
+            InputStream body) throws IOException {
+
+        // Тело читается потоком прямо из запроса, без @RequestBody и буферизации всего файла
+        UserImportResponse response = userImportService.importCsv(body);
+        return ResponseEntity.ok(response);
     }
 
     @Operation(
             summary = "Get all users",
-            description = "Retrieves a list of all users"
+            description = "Retrieves a page of users ordered by ID using keyset (cursor) pagination"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "List of users retrieved successfully",
-                    content = @Content(mediaType = "application/json")),
+                    description = "List of users retrieved successfully: HAL by default, "
+                            + "a flat array with paging in the Link header for view=compact or Accept: application/json",
+                    content = {
+                            @Content(mediaType = "application/hal+json"),
+                            @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = UserRecord.class)))}),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Page not modified since the ETag in If-None-Match",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid pagination parameters",
+                    content = @Content),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<CollectionModel<EntityModel<UserResponse>>> getAllUsers() {
-        CollectionModel<EntityModel<UserResponse>> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(
+            @Parameter(description = "Return users with ID greater than this cursor", example = "100")
+            @RequestParam(required = false) Long after,
+
+            @Parameter(description = "Return users with ID less than this cursor", example = "200")
+            @RequestParam(required = false) Long before,
+
+            @Parameter(description = "Page size (capped by the server-side maximum)", example = "20")
+            @RequestParam(required = false) Integer size,
+
+            @Parameter(description = "Representation: 'compact' (flat array) or 'hal'; by default chosen by Accept",
+                    example = "compact")
+            @RequestParam(required = false) String view,
+
+            @Parameter(description = "ETag of a previously fetched page")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Parameters 'after' and 'before' cannot be used together");
+        }
+        if (size != null && size <= 0) {
+            throw new IllegalArgumentException("Page size should be positive");
+        }
+
+        MediaType binary = binaryPageRepresentation(view, accept);
+        boolean compact = binary == null && isCompactView(view, accept);
+        String variant = binary != null ? binary.getSubtype() : compact ? COMPACT_VARIANT : null;
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        if (ifNoneMatch != null) {
+            String eTag = UserETags.ofRepresentation(userService.getUsersPageETag(after, before, pageSize), variant);
+            if (UserETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        if (binary != null || compact) {
+            UserRecordPage users = userService.getUserRecords(after, before, pageSize);
+            return recordPage(users, binary != null ? binary : MediaType.APPLICATION_JSON,
+                    UserETags.ofRepresentation(UserETags.ofPage(users), variant));
+        }
+        CollectionModel<EntityModel<UserResponse>> users = userService.getAllUsers(after, before, pageSize);
+        return ResponseEntity.ok().eTag(UserETags.ofPage(users)).varyBy(HttpHeaders.ACCEPT).body(users);
+    }
+
+    @Operation(
+            summary = "Search users",
+            description = "Filters users by case-insensitive name prefix, age range and creation time window; "
+                    + "pages are ordered by ID using keyset (cursor) pagination"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching users retrieved successfully: HAL by default, "
+                            + "a flat array with paging in the Link header for view=compact or Accept: application/json",
+                    content = {
+                            @Content(mediaType = "application/hal+json"),
+                            @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = UserRecord.class)))}),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter or pagination parameters",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(
+            @Parameter(description = "Name prefix, case-insensitive", example = "jo")
+            @RequestParam(required = false) String name,
+
+            @Parameter(description = "Minimum age, inclusive", example = "18")
+            @RequestParam(required = false) Integer minAge,
+
+            @Parameter(description = "Maximum age, inclusive", example = "65")
+            @RequestParam(required = false) Integer maxAge,
+
+            @Parameter(description = "Created at or after this time (ISO-8601)", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+
+            @Parameter(description = "Created before this time (ISO-8601)", example = "2024-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+
+            @Parameter(description = "Return users with ID greater than this cursor", example = "100")
+            @RequestParam(required = false) Long after,
+
+            @Parameter(description = "Return users with ID less than this cursor", example = "200")
+            @RequestParam(required = false) Long before,
+
+            @Parameter(description = "Page size (capped by the server-side maximum)", example = "20")
+            @RequestParam(required = false) Integer size,
+
+            @Parameter(description = "Representation: 'compact' (flat array) or 'hal'; by default chosen by Accept",
+                    example = "compact")
+            @RequestParam(required = false) String view,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Parameters 'after' and 'before' cannot be used together");
+        }
+        if (size != null && size <= 0) {
+            throw new IllegalArgumentException("Page size should be positive");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("Parameter 'minAge' should not exceed 'maxAge'");
+        }
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("Parameter 'createdFrom' should be before 'createdTo'");
+        }
+
+        String namePrefix = name == null || name.isBlank() ? null : name.trim();
+        UserSearchCriteria criteria = new UserSearchCriteria(namePrefix, minAge, maxAge, createdFrom, createdTo);
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        MediaType binary = binaryPageRepresentation(view, accept);
+        if (binary != null || isCompactView(view, accept)) {
+            return recordPage(userService.searchUserRecords(criteria, after, before, pageSize),
+                    binary != null ? binary : MediaType.APPLICATION_JSON, null);
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(userService.searchUsers(criteria, after, before, pageSize));
+    }
+
+    @Operation(
+            summary = "Suggest users",
+            description = "Autocomplete by name or email from an in-memory index: users whose name starts with the query "
+                    + "come first, then a word of the name, then the email, then any other occurrence"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Suggestions retrieved successfully",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Query is too short or limit is not positive",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Suggestions are disabled",
+                    content = @Content)
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestUsers(
+            @Parameter(description = "Beginning of a name or email word, at least 2 characters", required = true, example = "jo")
+            @RequestParam String q,
+
+            @Parameter(description = "Maximum number of suggestions (capped by the server-side maximum)", example = "10")
+            @RequestParam(required = false) Integer limit) {
+
+        if (userSuggestIndex == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Suggestions are disabled");
+        }
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit should be positive");
+        }
+        int suggestLimit = limit == null ? defaultSuggestLimit : Math.min(limit, maxSuggestLimit);
+        List<UserSuggestion> suggestions = userSuggestIndex.suggest(q, suggestLimit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @Operation(
+            summary = "Get user statistics",
+            description = "Total count, age histogram, users created per day and top email domains; "
+                    + "served from in-memory counters without querying the database"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statistics retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserStatsResponse.class))),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Statistics are disabled",
+                    content = @Content)
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        if (userStats == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Statistics are disabled");
+        }
+        return ResponseEntity.ok(userStats.getStats());
+    }
+
+    @Operation(
+            summary = "Export all users",
+            description = "Streams all users ordered by ID as newline-delimited JSON"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Users streamed successfully",
+                    content = @Content(mediaType = NDJSON_MEDIA_TYPE,
+                            schema = @Schema(implementation = UserRecord.class))),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(outputStream)) {
+                // Строки разделяются только переводом строки, без пробела между корневыми значениями
+                generator.setRootValueSeparator(null);
+                userService.exportUsers(user -> {
+                    try {
+                        ndjsonWriter.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
     }
 
     @Operation(
@@ -88,6 +532,10 @@ public class UserController {
                     description = "User found",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = UserResponse.class))),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "User not modified since the ETag in If-None-Match",
+                    content = @Content),
             @ApiResponse(
                     responseCode = "404",
                     description = "User not found",
@@ -100,10 +548,30 @@ public class UserController {
     @GetMapping("/{id}")
     public ResponseEntity<EntityModel<UserResponse>> getUserById(
             @Parameter(description = "ID of the user to retrieve", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+
+            @Parameter(description = "ETag of a previously fetched representation", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        MediaType representation = negotiate(accept);
+        String variant = representation != null && isBinary(representation) ? representation.getSubtype() : null;
+        // Версию проверяем до сборки EntityModel: из кеша или одним SELECT version
+        if (ifNoneMatch != null) {
+            String eTag = UserETags.ofRepresentation(UserETags.ofUser(userService.getUserVersion(id)), variant);
+            if (UserETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
 
         EntityModel<UserResponse> userResponse = userService.getUserById(id);
-        return ResponseEntity.ok(userResponse);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (representation != null) {
+            builder.contentType(representation);
+        }
+        return withETag(builder, userResponse, variant);
     }
 
     @Operation(
@@ -124,6 +592,14 @@ public class UserController {
                     responseCode = "404",
                     description = "User not found",
                     content = @Content),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "User was modified concurrently",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current version",
+                    content = @Content),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -135,10 +611,55 @@ public class UserController {
             @PathVariable Long id,
 
             @Parameter(description = "Updated user data", required = true)
-            @Valid @RequestBody UserRequest userRequest) {
+            @Valid @RequestBody UserRequest userRequest,
+
+            @Parameter(description = "Expected version (ETag) of the user", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        EntityModel<UserResponse> userResponse = userService.updateUser(id, userRequest, parseIfMatch(ifMatch));
+        return withETag(ResponseEntity.ok(), userResponse);
+    }
+
+    @Operation(
+            summary = "Partially update user",
+            description = "Updates only the supplied fields with a single conditional UPDATE"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "User updated successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input or email already exists",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "User not found",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "If-Match does not match the current version",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<EntityModel<UserResponse>> patchUser(
+            @Parameter(description = "ID of the user to update", required = true, example = "1")
+            @PathVariable Long id,
 
-        EntityModel<UserResponse> userResponse = userService.updateUser(id, userRequest);
-        return ResponseEntity.ok(userResponse);
+            @Parameter(description = "Fields to change, omitted fields stay unchanged", required = true)
+            @Valid @RequestBody UserPatchRequest patchRequest,
+
+            @Parameter(description = "Expected version (ETag) of the user", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        EntityModel<UserResponse> userResponse = userService.patchUser(id, patchRequest, parseIfMatch(ifMatch));
+        return withETag(ResponseEntity.ok(), userResponse);
     }
 
     @Operation(
@@ -167,7 +688,309 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Delete users in bulk",
+            description = "Deletes all users with the given IDs in a single statement, unknown IDs are ignored"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Users deleted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserBulkDeleteResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No IDs given or too many IDs",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @DeleteMapping
+    public ResponseEntity<UserBulkDeleteResponse> deleteUsers(
+            @Parameter(description = "Comma-separated IDs of the users to delete", required = true, example = "1,2,3")
+            @RequestParam(required = false) List<Long> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id should be provided");
+        }
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Number of ids should not exceed " + maxBatchSize);
+        }
+
+        return ResponseEntity.ok(userService.deleteUsers(ids));
+    }
+
+    @Operation(
+            summary = "Update users by filter",
+            description = "Sets or shifts the age of all users matching the filter. Users are processed in chunks, "
+                    + "each changed by a single statement in its own transaction"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Users updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserBulkOperationResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or invalid filter, or not exactly one of age and ageDelta",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @PostMapping("/bulk-update")
+    public ResponseEntity<UserBulkOperationResponse> bulkUpdateUsers(
+            @Parameter(description = "Filter and new values", required = true)
+            @Valid @RequestBody UserBulkUpdateRequest request) {
+
+        validateFilter(request.getFilter());
+        return ResponseEntity.ok(userBulkService.updateUsers(request));
+    }
+
+    @Operation(
+            summary = "Delete users by filter",
+            description = "Deletes all users matching the filter. Users are processed in chunks, "
+                    + "each deleted by a single statement in its own transaction"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Users deleted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserBulkOperationResponse.class))),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or invalid filter",
+                    content = @Content),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content)
+    })
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<UserBulkOperationResponse> bulkDeleteUsers(
+            @Parameter(description = "Filter selecting the users to delete", required = true)
+            @RequestBody UserBulkFilter filter) {
+
+        validateFilter(filter);
+        return ResponseEntity.ok(userBulkService.deleteUsers(filter));
+    }
+
+    private void validateFilter(UserBulkFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter condition should be provided");
+        }
+        if (filter.getIds() != null && (filter.getIds().isEmpty() || filter.getIds().size() > maxBatchSize)) {
+            throw new IllegalArgumentException("Number of ids should be between 1 and " + maxBatchSize);
+        }
+        if (filter.getMinAge() != null && filter.getMaxAge() != null && filter.getMinAge() > filter.getMaxAge()) {
+            throw new IllegalArgumentException("Filter 'minAge' should not exceed 'maxAge'");
+        }
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && !filter.getCreatedFrom().isBefore(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("Filter 'createdFrom' should be before 'createdTo'");
+        }
+    }
+
+    // Компактный вид: ?view=compact, а без параметра — когда application/json в Accept не ниже HAL.
+    // */* и браузерные Accept получают HAL, как и раньше
+    private static boolean isCompactView(String view, String accept) {
+        if (view != null) {
+            return switch (view) {
+                case "compact" -> true;
+                case "hal" -> false;
+                default -> throw new IllegalArgumentException("Parameter 'view' should be 'compact' or 'hal'");
+            };
+        }
+        if (accept == null) {
+            return false;
+        }
+        double json = 0;
+        double hal = 0;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, mediaType.getQualityValue());
+                } else if (mediaType.equalsTypeAndSubtype(MediaTypes.HAL_JSON)) {
+                    hal = Math.max(hal, mediaType.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+        return json > 0 && json > hal;
+    }
+
+    // Двоичная страница (UserRecordPage) — только без ?view и когда Accept предпочитает двоичный формат JSON:
+    // HAL-модель со ссылками на каждую строку конвертер всё равно отбросил бы
+    private static MediaType binaryPageRepresentation(String view, String accept) {
+        if (view != null) {
+            return null;
+        }
+        MediaType representation = negotiate(accept);
+        return representation != null && isBinary(representation) ? representation : null;
+    }
+
+    // Тип ответа с пользователями по Accept: самый точный подходящий диапазон, затем q; при равенстве — порядок
+    // USER_MEDIA_TYPES (HAL первым, как у конвертеров для */*). null — ни один тип не подходит (ответ 406).
+    // Выбранный тип ставится в Content-Type, поэтому ETag и конвертер не расходятся
+    private static MediaType negotiate(String accept) {
+        if (accept == null) {
+            return MediaTypes.HAL_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return null;
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType candidate : USER_MEDIA_TYPES) {
+            double quality = quality(accepted, candidate);
+            if (quality > bestQuality) {
+                best = candidate;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    // q самого точного диапазона Accept, включающего тип (RFC 9110, 12.5.1)
+    private static double quality(List<MediaType> accepted, MediaType mediaType) {
+        MediaType match = null;
+        for (MediaType range : accepted) {
+            if (range.includes(mediaType) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match == null ? 0 : match.getQualityValue();
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private static boolean isBinary(MediaType mediaType) {
+        return !mediaType.equalsTypeAndSubtype(MediaTypes.HAL_JSON)
+                && !mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON);
+    }
+
+    // Страница без ссылок в строках: массив в JSON или UserPagePayload в двоичном формате. Соседние страницы —
+    // в заголовке Link (RFC 8288) с курсорами вместо текущих, остальные параметры запроса (size, view, фильтры
+    // поиска) сохраняются
+    private static ResponseEntity<?> recordPage(UserRecordPage users, MediaType contentType, String eTag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(contentType)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        if (users.nextAfter() != null) {
+            builder.header(HttpHeaders.LINK, pageLink("after", users.nextAfter(), IanaLinkRelations.NEXT));
+        }
+        if (users.prevBefore() != null) {
+            builder.header(HttpHeaders.LINK, pageLink("before", users.prevBefore(), IanaLinkRelations.PREV));
+        }
+        return isBinary(contentType) ? builder.body(users) : builder.body(users.users());
+    }
+
+    private static String pageLink(String cursor, Long value, LinkRelation rel) {
+        String href = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after")
+                .replaceQueryParam("before")
+                .replaceQueryParam(cursor, value)
+                .build()
+                .toUriString();
+        return Link.of(href, rel).toString();
+    }
+
+    // ETag пользователя — его версия: "3"
+    private static ResponseEntity<EntityModel<UserResponse>> withETag(ResponseEntity.BodyBuilder builder,
+                                                                     EntityModel<UserResponse> userResponse) {
+        return withETag(builder, userResponse, null);
+    }
+
+    // Двоичные представления — с суффиксом формата: "3-cbor"
+    private static ResponseEntity<EntityModel<UserResponse>> withETag(ResponseEntity.BodyBuilder builder,
+                                                                     EntityModel<UserResponse> userResponse,
+                                                                     String variant) {
+        UserResponse content = userResponse.getContent();
+        if (content != null && content.getVersion() != null) {
+            builder.eTag(UserETags.ofRepresentation(UserETags.ofUser(content.getVersion()), variant));
+        }
+        return builder.body(userResponse);
+    }
+
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("\"") && value.endsWith("\"") && value.length() > 1) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(UserETags.withoutRepresentation(value));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
     // Обработчик исключений с документацией
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<String> handleVersionConflictException(VersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(UserETags.ofUser(ex.getCurrentVersion()))
+                .body(ex.getMessage());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(UserCreateRejectedException.class)
+    public ResponseEntity<String> handleUserCreateRejectedException(UserCreateRejectedException ex) {
+        HttpStatus status = ex.isShuttingDown() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("User was modified concurrently, reload it and retry");
+    }
+
+    // Нарушения правил UserRequest/UserPatchRequest — те же сообщения, что и в пакетном создании.
+    // Без этого обработчика @Valid попадал в handleGenericException и отвечал 500
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<String> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
+        String message = ex.getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest().body(message);
+    }
+
+    // Нечисловой курсор, дата не в ISO-8601 и т.п. — ошибка клиента, а не 500
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        return ResponseEntity.badRequest().body("Invalid value of parameter '" + ex.getName() + "': " + ex.getValue());
+    }
+
     @io.swagger.v3.oas.annotations.Hidden
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
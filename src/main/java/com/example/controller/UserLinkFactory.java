@@ -0,0 +1,84 @@
+package com.example.controller;
+
+import com.example.dto.UserSearchCriteria;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+@Component
+public class UserLinkFactory {
+
+    private static final String USERS_URI_ATTRIBUTE = UserLinkFactory.class.getName() + ".USERS_URI";
+
+    public Link self(Long id) {
+        return user(id, IanaLinkRelations.SELF_VALUE);
+    }
+
+    public Link user(Long id, String rel) {
+        return Link.of(usersUri() + "/" + id, rel);
+    }
+
+    public Link users(String rel) {
+        return Link.of(usersUri(), rel);
+    }
+
+    public Link createRequest(String requestId, String rel) {
+        return Link.of(usersUri() + "/create-requests/" + requestId, rel);
+    }
+
+    public Link usersPage(Long after, Long before, int size, String rel) {
+        StringBuilder href = new StringBuilder(usersUri()).append('?');
+        if (after != null) {
+            href.append("after=").append(after).append('&');
+        }
+        if (before != null) {
+            href.append("before=").append(before).append('&');
+        }
+        href.append("size=").append(size);
+        return Link.of(href.toString(), rel);
+    }
+
+    public Link searchPage(UserSearchCriteria criteria, Long after, Long before, int size, String rel) {
+        StringBuilder href = new StringBuilder(usersUri()).append("/search?");
+        appendParam(href, "name", criteria.namePrefix());
+        appendParam(href, "minAge", criteria.minAge());
+        appendParam(href, "maxAge", criteria.maxAge());
+        appendParam(href, "createdFrom", criteria.createdFrom());
+        appendParam(href, "createdTo", criteria.createdTo());
+        appendParam(href, "after", after);
+        appendParam(href, "before", before);
+        href.append("size=").append(size);
+        return Link.of(href.toString(), rel);
+    }
+
+    // Значения фильтров приходят от клиента, поэтому кодируются (в отличие от числовых курсоров)
+    private static void appendParam(StringBuilder href, String name, Object value) {
+        if (value != null) {
+            href.append(name).append('=')
+                    .append(UriUtils.encodeQueryParam(value.toString(), StandardCharsets.UTF_8))
+                    .append('&');
+        }
+    }
+
+    // Базовый URI /api/users вычисляется один раз за запрос, дальше ссылки собираются конкатенацией
+    public String usersUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return linkTo(UserController.class).toUri().toString();
+        }
+
+        Object usersUri = attributes.getAttribute(USERS_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (usersUri == null) {
+            usersUri = linkTo(UserController.class).toUri().toString();
+            attributes.setAttribute(USERS_URI_ATTRIBUTE, usersUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (String) usersUri;
+    }
+}
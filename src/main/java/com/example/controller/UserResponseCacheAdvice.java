@@ -0,0 +1,131 @@
+package com.example.controller;
+
+import com.example.dto.UserResponse;
+import com.example.service.UserResponseCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+
+// GET /api/users/{id} из UserResponseCache: тип ответа уже выбран Spring MVC, при промахе тело пишется выбранным
+// конвертером в буфер и кешируется, при попадании байты идут в ответ без сериализации.
+// Тело пишется здесь, поэтому конвертеру возвращается null
+@ControllerAdvice(assignableTypes = UserController.class)
+public class UserResponseCacheAdvice implements ResponseBodyAdvice<Object> {
+
+    // null, если кеш ответов выключен (app.users.response-cache.enabled)
+    private final UserResponseCache userResponseCache;
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    public UserResponseCacheAdvice(ObjectProvider<UserResponseCache> userResponseCache,
+                                   ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.userResponseCache = userResponseCache.getIfAvailable();
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return userResponseCache != null
+                && returnType.hasMethodAnnotation(GetMapping.class)
+                && GenericHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof EntityModel<?> model) || !(model.getContent() instanceof UserResponse user)
+                || user.getId() == null || user.getVersion() == null) {
+            return body;
+        }
+        String variant = selectedContentType + " " + model.getLink(IanaLinkRelations.SELF).map(Link::getHref).orElse("");
+
+        ByteBuffer bytes = userResponseCache.get(user.getId(), user.getVersion(), variant);
+        if (bytes == null) {
+            byte[] serialized = serialize(body, bodyType(returnType), selectedContentType, selectedConverterType);
+            bytes = userResponseCache.put(user.getId(), user.getVersion(), variant, serialized);
+        }
+
+        response.getHeaders().setContentType(selectedContentType);
+        response.getHeaders().setContentLength(bytes.remaining());
+        try {
+            write(bytes, response.getBody());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(Object body, Type type, MediaType contentType,
+                             Class<? extends HttpMessageConverter<?>> converterType) {
+        List<HttpMessageConverter<?>> converters = handlerAdapter.getObject().getMessageConverters();
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter.getClass() == converterType && converter instanceof GenericHttpMessageConverter<?> generic
+                    && generic.canWrite(type, body.getClass(), contentType)) {
+                BufferedOutputMessage message = new BufferedOutputMessage();
+                try {
+                    ((GenericHttpMessageConverter<Object>) generic).write(body, type, contentType, message);
+                } catch (IOException ex) {
+                    throw new HttpMessageNotWritableException("Could not serialize user response", ex);
+                }
+                return message.body.toByteArray();
+            }
+        }
+        throw new HttpMessageNotWritableException("No converter " + converterType.getName() + " for " + contentType);
+    }
+
+    // Тип тела, как его видит Spring MVC: EntityModel<UserResponse> из ResponseEntity<...>
+    private static Type bodyType(MethodParameter returnType) {
+        ResolvableType declared = ResolvableType.forMethodParameter(returnType);
+        return HttpEntity.class.isAssignableFrom(declared.toClass()) ? declared.getGeneric(0).getType() : declared.getType();
+    }
+
+    private static void write(ByteBuffer bytes, OutputStream out) throws IOException {
+        if (bytes.hasArray()) {
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+            Channels.newChannel(out).write(bytes);
+        }
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single user in a batch create request")
+public class UserBatchItemResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    @Schema(description = "Position of the user in the request list", example = "0")
+    private int index;
+
+    @Schema(description = "Outcome of the item", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "ID of the created user", example = "1")
+    private Long id;
+
+    @Schema(description = "Email from the request", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Reason why the user was not created", example = "User with email john.doe@example.com already exists")
+    private String message;
+
+
+    public UserBatchItemResult() {}
+
+    public UserBatchItemResult(int index, Status status, Long id, String email, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.email = email;
+        this.message = message;
+    }
+
+    public static UserBatchItemResult created(int index, Long id, String email) {
+        return new UserBatchItemResult(index, Status.CREATED, id, email, null);
+    }
+
+    public static UserBatchItemResult duplicate(int index, String email, String message) {
+        return new UserBatchItemResult(index, Status.DUPLICATE, null, email, message);
+    }
+
+    public static UserBatchItemResult invalid(int index, String email, String message) {
+        return new UserBatchItemResult(index, Status.INVALID, null, email, message);
+    }
+
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
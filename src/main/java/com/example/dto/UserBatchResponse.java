@@ -0,0 +1,48 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Result of a batch create request")
+public class UserBatchResponse {
+
+    @Schema(description = "Number of users created", example = "98")
+    private int created;
+
+    @Schema(description = "Number of users skipped because the email already exists", example = "1")
+    private int duplicates;
+
+    @Schema(description = "Number of users rejected by validation", example = "1")
+    private int invalid;
+
+    @Schema(description = "Per-item results in request order")
+    private List<UserBatchItemResult> results;
+
+
+    public UserBatchResponse() {}
+
+    public UserBatchResponse(List<UserBatchItemResult> results) {
+        this.results = results;
+        for (UserBatchItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+    }
+
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getDuplicates() { return duplicates; }
+    public void setDuplicates(int duplicates) { this.duplicates = duplicates; }
+
+    public int getInvalid() { return invalid; }
+    public void setInvalid(int invalid) { this.invalid = invalid; }
+
+    public List<UserBatchItemResult> getResults() { return results; }
+    public void setResults(List<UserBatchItemResult> results) { this.results = results; }
+}
@@ -0,0 +1,28 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a bulk delete request")
+public class UserBulkDeleteResponse {
+
+    @Schema(description = "Number of distinct ids in the request", example = "3")
+    private int requested;
+
+    @Schema(description = "Number of users actually deleted", example = "2")
+    private int deleted;
+
+
+    public UserBulkDeleteResponse() {}
+
+    public UserBulkDeleteResponse(int requested, int deleted) {
+        this.requested = requested;
+        this.deleted = deleted;
+    }
+
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getDeleted() { return deleted; }
+    public void setDeleted(int deleted) { this.deleted = deleted; }
+}
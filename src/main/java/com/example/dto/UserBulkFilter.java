@@ -0,0 +1,58 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Отбор пользователей для массовых операций; null — условие не задано, заданные условия объединяются через AND.
+// createdFrom включительно, createdTo не включительно, minAge/maxAge включительно
+@Schema(description = "Selects users for a bulk operation; all given conditions must match")
+public class UserBulkFilter {
+
+    @Schema(description = "IDs of the users", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "Created at or after this time", example = "2024-01-01T00:00:00")
+    private LocalDateTime createdFrom;
+
+    @Schema(description = "Created before this time", example = "2024-02-01T00:00:00")
+    private LocalDateTime createdTo;
+
+    @Schema(description = "Minimum age, inclusive", example = "18")
+    private Integer minAge;
+
+    @Schema(description = "Maximum age, inclusive", example = "25")
+    private Integer maxAge;
+
+
+    public UserBulkFilter() {}
+
+    public UserBulkFilter(List<Long> ids, LocalDateTime createdFrom, LocalDateTime createdTo, Integer minAge, Integer maxAge) {
+        this.ids = ids;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public boolean isEmpty() {
+        return ids == null && createdFrom == null && createdTo == null && minAge == null && maxAge == null;
+    }
+
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+
+    public Integer getMinAge() { return minAge; }
+    public void setMinAge(Integer minAge) { this.minAge = minAge; }
+
+    public Integer getMaxAge() { return maxAge; }
+    public void setMaxAge(Integer maxAge) { this.maxAge = maxAge; }
+}
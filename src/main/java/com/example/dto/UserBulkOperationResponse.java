@@ -0,0 +1,35 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a bulk update or delete by filter")
+public class UserBulkOperationResponse {
+
+    @Schema(description = "Number of users updated or deleted", example = "1200")
+    private long affected;
+
+    @Schema(description = "Number of chunks, each executed in its own transaction", example = "2")
+    private int chunks;
+
+    @Schema(description = "Duration in milliseconds", example = "85")
+    private long durationMillis;
+
+
+    public UserBulkOperationResponse() {}
+
+    public UserBulkOperationResponse(long affected, int chunks, long durationMillis) {
+        this.affected = affected;
+        this.chunks = chunks;
+        this.durationMillis = durationMillis;
+    }
+
+
+    public long getAffected() { return affected; }
+    public void setAffected(long affected) { this.affected = affected; }
+
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+}
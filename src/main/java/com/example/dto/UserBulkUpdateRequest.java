@@ -0,0 +1,45 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+// Задаётся ровно одно из age (новое значение) и ageDelta (сдвиг текущего)
+@Schema(description = "Bulk update: which users to change and how")
+public class UserBulkUpdateRequest {
+
+    public static final int MAX_AGE_DELTA = 200;
+
+    @NotNull(message = "Filter is required")
+    private UserBulkFilter filter;
+
+    @Schema(description = "New age for all matching users", example = "30")
+    @Positive(message = "Age should be positive")
+    private Integer age;
+
+    @Schema(description = "Amount added to the age of each matching user", example = "1")
+    @Min(value = -MAX_AGE_DELTA, message = "Age delta should not be less than -" + MAX_AGE_DELTA)
+    @Max(value = MAX_AGE_DELTA, message = "Age delta should not exceed " + MAX_AGE_DELTA)
+    private Integer ageDelta;
+
+
+    public UserBulkUpdateRequest() {}
+
+    public UserBulkUpdateRequest(UserBulkFilter filter, Integer age, Integer ageDelta) {
+        this.filter = filter;
+        this.age = age;
+        this.ageDelta = ageDelta;
+    }
+
+
+    public UserBulkFilter getFilter() { return filter; }
+    public void setFilter(UserBulkFilter filter) { this.filter = filter; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+
+    public Integer getAgeDelta() { return ageDelta; }
+    public void setAgeDelta(Integer ageDelta) { this.ageDelta = ageDelta; }
+}
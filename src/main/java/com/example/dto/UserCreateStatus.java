@@ -0,0 +1,67 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "State of a user create request accepted for asynchronous processing")
+public class UserCreateStatus {
+
+    public enum Status {
+        PENDING,
+        CREATED,
+        FAILED
+    }
+
+    @Schema(description = "ID of the create request", example = "3f1c2a9e-6d4b-4e0f-9a51-2b7d8c0e4f11")
+    private String requestId;
+
+    @Schema(description = "Current state of the request", example = "PENDING")
+    private Status status;
+
+    @Schema(description = "ID of the created user", example = "1")
+    private Long userId;
+
+    @Schema(description = "Email from the request", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Reason why the user was not created", example = "User with email john.doe@example.com already exists")
+    private String message;
+
+
+    public UserCreateStatus() {}
+
+    public UserCreateStatus(String requestId, Status status, Long userId, String email, String message) {
+        this.requestId = requestId;
+        this.status = status;
+        this.userId = userId;
+        this.email = email;
+        this.message = message;
+    }
+
+    public static UserCreateStatus pending(String requestId, String email) {
+        return new UserCreateStatus(requestId, Status.PENDING, null, email, null);
+    }
+
+    public static UserCreateStatus created(String requestId, Long userId, String email) {
+        return new UserCreateStatus(requestId, Status.CREATED, userId, email, null);
+    }
+
+    public static UserCreateStatus failed(String requestId, String email, String message) {
+        return new UserCreateStatus(requestId, Status.FAILED, null, email, message);
+    }
+
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
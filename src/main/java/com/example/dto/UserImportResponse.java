@@ -0,0 +1,38 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Result of a CSV import")
+public record UserImportResponse(
+        @Schema(description = "Number of data rows read, header excluded", example = "100000")
+        long rows,
+
+        @Schema(description = "Number of users created", example = "99990")
+        long accepted,
+
+        @Schema(description = "Number of rows rejected by validation or because the email already exists", example = "10")
+        long rejected,
+
+        @Schema(description = "Import duration in milliseconds", example = "4200")
+        long durationMillis,
+
+        @Schema(description = "Throughput over the whole import", example = "23809.5")
+        double rowsPerSecond,
+
+        @Schema(description = "Rejected rows in file order, up to the server-side limit")
+        List<RejectedLine> rejectedLines,
+
+        @Schema(description = "True if more rows were rejected than listed in rejectedLines", example = "false")
+        boolean rejectedLinesTruncated
+) {
+
+    public record RejectedLine(
+            @Schema(description = "Line number in the file, header included", example = "42")
+            long line,
+
+            @Schema(description = "Why the row was rejected", example = "User with email john@example.com already exists")
+            String reason) {
+    }
+}
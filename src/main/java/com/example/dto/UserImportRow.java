@@ -0,0 +1,5 @@
+package com.example.dto;
+
+// Проверенная строка импорта; line — номер строки в файле (с 1, заголовок тоже считается)
+public record UserImportRow(long line, String name, String email, int age) {
+}
@@ -0,0 +1,10 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Страница пользователей в бинарных форматах: вместо ссылок next/prev — курсоры для параметров after/before
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserPagePayload(List<UserPayload> users, Long nextAfter, Long prevBefore) {
+}
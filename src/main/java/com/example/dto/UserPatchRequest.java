@@ -0,0 +1,44 @@
+package com.example.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public class UserPatchRequest {
+
+    @Pattern(regexp = ".*\\S.*", message = "Name should not be blank")
+    @Size(max = 100, message = "Name should not exceed 100 characters")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*", message = "Email should not be blank")
+    @Email(message = "Email should be valid")
+    @Size(max = 150, message = "Email should not exceed 150 characters")
+    private String email;
+
+    @Positive(message = "Age should be positive")
+    private Integer age;
+
+
+    public UserPatchRequest() {}
+
+    public UserPatchRequest(String name, String email, Integer age) {
+        this.name = name;
+        this.email = email;
+        this.age = age;
+    }
+
+    public boolean isEmpty() {
+        return name == null && email == null && age == null;
+    }
+
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+}
@@ -0,0 +1,33 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+// Пользователь в бинарных форматах (CBOR, Smile, Protobuf): без ссылок HAL, время — микросекунды от эпохи.
+// createdAt хранится без зоны, поэтому переводится как время UTC: обратное преобразование даёт то же значение
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserPayload(long id, String name, String email, Integer age, long createdAtMicros, Long version) {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    public static UserPayload of(UserResponse user) {
+        return new UserPayload(user.getId(), user.getName(), user.getEmail(), user.getAge(),
+                toMicros(user.getCreatedAt()), user.getVersion());
+    }
+
+    public static UserPayload of(UserRecord user) {
+        return new UserPayload(user.id(), user.name(), user.email(), user.age(),
+                toMicros(user.createdAt()), user.version());
+    }
+
+    public LocalDateTime createdAt() {
+        return EPOCH.plus(createdAtMicros, ChronoUnit.MICROS);
+    }
+
+    private static long toMicros(LocalDateTime createdAt) {
+        return createdAt == null ? 0 : ChronoUnit.MICROS.between(EPOCH, createdAt);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Flat user data without hypermedia links")
+public record UserRecord(
+        @Schema(description = "Unique identifier of the user", example = "1")
+        Long id,
+
+        @Schema(description = "User's full name", example = "John Doe")
+        String name,
+
+        @Schema(description = "User's email address", example = "john.doe@example.com")
+        String email,
+
+        @Schema(description = "User's age", example = "30")
+        Integer age,
+
+        @Schema(description = "Timestamp when user was created", example = "2023-11-15T10:30:00")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Version of the user, changes on every update", example = "0")
+        Long version
+) {
+}
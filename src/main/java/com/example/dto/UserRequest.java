@@ -4,14 +4,17 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 public class UserRequest {
 
     @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name should not exceed 100 characters")
     private String name;
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
+    @Size(max = 150, message = "Email should not exceed 150 characters")
     private String email;
 
     @NotNull(message = "Age is required")
@@ -22,6 +22,9 @@ public class UserResponse extends RepresentationModel<UserResponse>{
     @Schema(description = "Timestamp when user was created", example = "2023-11-15T10:30:00")
     private LocalDateTime createdAt;
 
+    @Schema(description = "Version of the user, changes on every update", example = "0")
+    private Long version;
+
 
     public UserResponse() {}
 
@@ -33,6 +36,11 @@ public class UserResponse extends RepresentationModel<UserResponse>{
         this.createdAt = createdAt;
     }
 
+    public UserResponse(Long id, String name, String email, Integer age, LocalDateTime createdAt, Long version) {
+        this(id, name, email, age, createdAt);
+        this.version = version;
+    }
+
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -48,4 +56,7 @@ public class UserResponse extends RepresentationModel<UserResponse>{
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
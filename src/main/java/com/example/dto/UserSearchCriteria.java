@@ -0,0 +1,11 @@
+package com.example.dto;
+
+import java.time.LocalDateTime;
+
+// Фильтры поиска; null — фильтр не задан. createdFrom включительно, createdTo не включительно
+public record UserSearchCriteria(String namePrefix,
+                                 Integer minAge,
+                                 Integer maxAge,
+                                 LocalDateTime createdFrom,
+                                 LocalDateTime createdTo) {
+}
@@ -0,0 +1,50 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "User statistics maintained in memory and periodically reconciled with the database")
+public record UserStatsResponse(
+        @Schema(description = "Total number of users", example = "1250")
+        long total,
+
+        @Schema(description = "Number of users per age range")
+        List<AgeBucket> ageHistogram,
+
+        @Schema(description = "Number of users created per day, oldest first, days without users included")
+        List<DayCount> createdPerDay,
+
+        @Schema(description = "Most frequent email domains, most frequent first")
+        List<DomainCount> topEmailDomains,
+
+        @Schema(description = "When the counters were last reconciled with the database", example = "2024-01-15T10:30:00")
+        LocalDateTime reconciledAt
+) {
+
+    public record AgeBucket(
+            @Schema(description = "Age range, inclusive", example = "25-34")
+            String range,
+
+            @Schema(description = "Number of users in the range", example = "310")
+            long count) {
+    }
+
+    public record DayCount(
+            @Schema(description = "Day of creation", example = "2024-01-15")
+            LocalDate date,
+
+            @Schema(description = "Number of users created that day", example = "42")
+            long count) {
+    }
+
+    public record DomainCount(
+            @Schema(description = "Email domain, lower case", example = "example.com")
+            String domain,
+
+            @Schema(description = "Number of users with the domain", example = "120")
+            long count) {
+    }
+}
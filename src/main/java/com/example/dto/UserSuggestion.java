@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Autocomplete suggestion: user ID and name")
+public record UserSuggestion(
+        @Schema(description = "Unique identifier of the user", example = "1")
+        long id,
+
+        @Schema(description = "User's full name", example = "John Doe")
+        String name
+) {
+}
@@ -0,0 +1,4 @@
+package com.example.dto;
+
+// Лёгкая проекция для проверки ETag без загрузки всей сущности
+public record UserVersion(Long id, Long version) {}
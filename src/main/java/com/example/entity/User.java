@@ -4,17 +4,27 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+// Индексы под фильтры поиска; индекс по префиксу имени — выражение lower(name), он в schema-postgresql.sql
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = {
+                @Index(name = "idx_users_age", columnList = "age"),
+                @Index(name = "idx_users_created_at", columnList = "created_at")
+        })
 public class User {
 
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Пул идентификаторов из последовательности позволяет Hibernate батчить INSERT
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
     private String name;
 
-    @Column(name = "email", nullable = false, unique = true, length = 150)
+    @Column(name = "email", nullable = false, length = 150)
     private String email;
 
     @Column(name = "age")
@@ -23,6 +33,11 @@ public class User {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // default 0 нужен, чтобы ddl-auto мог добавить колонку в таблицу с существующими строками
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
 
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -76,11 +91,19 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return String.format(
-                "User{id=%d, name='%s', email='%s', age=%d, createdAt=%s}",
-                id, name, email, age, createdAt
+                "User{id=%d, name='%s', email='%s', age=%d, createdAt=%s, version=%d}",
+                id, name, email, age, createdAt, version
         );
     }
 }
\ No newline at end of file
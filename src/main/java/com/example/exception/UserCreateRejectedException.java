@@ -0,0 +1,23 @@
+package com.example.exception;
+
+public class UserCreateRejectedException extends RuntimeException {
+
+    private final boolean shuttingDown;
+
+    private UserCreateRejectedException(String message, boolean shuttingDown) {
+        super(message);
+        this.shuttingDown = shuttingDown;
+    }
+
+    public static UserCreateRejectedException queueFull(int capacity) {
+        return new UserCreateRejectedException("Create queue is full (" + capacity + " requests), retry later", false);
+    }
+
+    public static UserCreateRejectedException shuttingDown() {
+        return new UserCreateRejectedException("Service is shutting down, retry later", true);
+    }
+
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.exception;
+
+public class UserNotFoundException extends IllegalArgumentException {
+
+    public UserNotFoundException(Long id) {
+        super("User not found with id: " + id);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.exception;
+
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionConflictException(Long id, Long expectedVersion, Long currentVersion) {
+        super("User " + id + " has version " + currentVersion + ", expected " + expectedVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
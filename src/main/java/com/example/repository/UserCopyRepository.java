@@ -0,0 +1,122 @@
+package com.example.repository;
+
+import com.example.dto.UserImportRow;
+import com.example.dto.UserRecord;
+import com.example.entity.User;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Импорт на PostgreSQL: пачка строк уходит COPY во временную таблицу и переносится в users одним
+// INSERT ... ON CONFLICT по уникальности email. Вызывается внутри транзакции: временная таблица живёт
+// в соединении и очищается при коммите
+@Repository
+public class UserCopyRepository {
+
+    // Как у @SequenceGenerator users_seq: одно значение последовательности — блок из 50 id
+    private static final long ID_ALLOCATION_SIZE = 50;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING = "create temporary table if not exists users_import "
+            + "(line bigint not null, id bigint not null, name text, email text, age integer) on commit delete rows";
+
+    private static final String COPY_STAGING = "copy users_import (line, id, name, email, age) from stdin with (format csv)";
+
+    // Из повторов email внутри пачки остаётся первая строка; returning + join возвращают номер строки файла
+    private static final String MERGE = """
+            with inserted as (
+                insert into users (id, name, email, age, created_at, version)
+                select distinct on (s.email) s.id, s.name, s.email, s.age, ?, 0
+                from users_import s
+                order by s.email, s.line
+                on conflict on constraint %s do nothing
+                returning id, name, email, age, created_at, version)
+            select s.line, i.id, i.name, i.email, i.age, i.created_at, i.version
+            from inserted i join users_import s on s.id = i.id
+            order by s.line""".formatted(User.EMAIL_CONSTRAINT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserCopyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Созданные пользователи по номеру строки; строк, которых нет в ответе, email уже был занят
+    public Map<Long, UserRecord> copyAndMerge(List<UserImportRow> rows) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        long[] ids = allocateIds(rows.size());
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+            try (OutputStream out = new PGCopyOutputStream(copyIn, COPY_BUFFER_SIZE)) {
+                StringBuilder line = new StringBuilder(128);
+                for (int i = 0; i < rows.size(); i++) {
+                    UserImportRow row = rows.get(i);
+                    line.setLength(0);
+                    line.append(row.line()).append(',').append(ids[i]).append(',');
+                    appendQuoted(line, row.name()).append(',');
+                    appendQuoted(line, row.email()).append(',');
+                    line.append(row.age()).append('\n');
+                    out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return copyIn.getHandledRowCount();
+        });
+
+        Map<Long, UserRecord> created = new LinkedHashMap<>();
+        jdbcTemplate.query(MERGE, resultSet -> {
+            created.put(resultSet.getLong("line"), new UserRecord(
+                    resultSet.getLong("id"),
+                    resultSet.getString("name"),
+                    resultSet.getString("email"),
+                    resultSet.getInt("age"),
+                    resultSet.getTimestamp("created_at").toLocalDateTime(),
+                    resultSet.getLong("version")));
+        }, Timestamp.valueOf(LocalDateTime.now()));
+        return created;
+    }
+
+    // Совместимо с pooled-оптимизатором Hibernate: значение последовательности — верхняя граница блока.
+    // Первое значение (1) даёт неполный блок, поэтому выборка повторяется, пока id не хватит
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int next = 0;
+        while (next < count) {
+            long blocks = (count - next + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+            List<Long> his = jdbcTemplate.queryForList(
+                    "select nextval('users_seq') from generate_series(1, ?)", Long.class, blocks);
+            for (long hi : his) {
+                for (long id = Math.max(1, hi - ID_ALLOCATION_SIZE + 1); id <= hi && next < count; id++) {
+                    ids[next++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
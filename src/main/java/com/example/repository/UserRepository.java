@@ -1,17 +1,100 @@
 package com.example.repository;
 
+import com.example.dto.UserRecord;
 import com.example.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository {
+
+    String SELECT_RECORD = "select new com.example.dto.UserRecord(u.id, u.name, u.email, u.age, u.createdAt, u.version) " +
+            "from User u";
 
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
-    boolean existsByEmailAndIdNot(String email, Long id);
-}
\ No newline at end of file
+    // Проверка уникальности email сразу для всей пачки одним IN-запросом
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Частичное обновление одним UPDATE без предварительного SELECT; null-поля не меняются
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned User u set u.name = coalesce(cast(:name as String), u.name), u.email = coalesce(cast(:email as String), u.email), " +
+            "u.age = coalesce(cast(:age as Integer), u.age) where u.id = :id")
+    int patch(@Param("id") Long id,
+              @Param("name") String name,
+              @Param("email") String email,
+              @Param("age") Integer age);
+
+    // То же, но только если версия совпадает с ожидаемой (If-Match)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned User u set u.name = coalesce(cast(:name as String), u.name), u.email = coalesce(cast(:email as String), u.email), " +
+            "u.age = coalesce(cast(:age as Integer), u.age) where u.id = :id and u.version = :version")
+    int patchIfVersion(@Param("id") Long id,
+                       @Param("version") Long version,
+                       @Param("name") String name,
+                       @Param("email") String email,
+                       @Param("age") Integer age);
+
+    // Удаление одним DELETE; возвращает число удалённых строк (0 — пользователя нет)
+    @Modifying(clearAutomatically = true)
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteUsersByIds(@Param("ids") Collection<Long> ids);
+
+    // Массовое изменение возраста пачки: age задан — новое значение, иначе age + ageDelta
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned User u set u.age = coalesce(cast(:age as Integer), u.age + :ageDelta) where u.id in :ids")
+    int updateAgeByIds(@Param("ids") Collection<Long> ids,
+                       @Param("age") Integer age,
+                       @Param("ageDelta") int ageDelta);
+
+    @Query(SELECT_RECORD + " where u.id in :ids order by u.id")
+    List<UserRecord> findRecordsByIds(@Param("ids") Collection<Long> ids);
+
+    // Чтение сразу в UserRecord: без управляемых сущностей и снимков для dirty checking
+    @Query(SELECT_RECORD + " where u.id = :id")
+    Optional<UserRecord> findRecordById(@Param("id") Long id);
+
+    // Keyset-пагинация: страница после курсора (по возрастанию id), type — проекция (UserRecord, UserVersion)
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
+
+    // Keyset-пагинация: страница перед курсором (по убыванию id)
+    <T> List<T> findByIdLessThanOrderByIdDesc(Long id, Limit limit, Class<T> type);
+
+    // Группировки для сверки статистики: считает БД, строки пользователей не выгружаются
+    @Query("select u.age, count(u) from User u group by u.age")
+    List<Object[]> countByAge();
+
+    @Query("select cast(u.createdAt as LocalDate), count(u) from User u group by cast(u.createdAt as LocalDate)")
+    List<Object[]> countByCreatedDate();
+
+    @Query("select lower(substring(u.email, locate('@', u.email) + 1)), count(u) from User u " +
+            "group by lower(substring(u.email, locate('@', u.email) + 1))")
+    List<Object[]> countByEmailDomain();
+
+    // Потоковое чтение для экспорта: JDBC-курсор вместо загрузки всей таблицы
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RECORD + " order by u.id")
+    Stream<UserRecord> streamAllRecordsOrderById();
+}
@@ -0,0 +1,18 @@
+package com.example.repository;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserSearchCriteria;
+import com.example.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+
+    // Keyset-пагинация как у списка: при before — страница перед курсором по убыванию id, иначе после after
+    List<UserRecord> search(UserSearchCriteria criteria, Long after, Long before, Limit limit);
+
+    // Очередная пачка id для массовой операции (по возрастанию, после after) под блокировкой строк до конца транзакции
+    List<Long> lockIds(Specification<User> specification, long after, Limit limit);
+}
@@ -0,0 +1,60 @@
+package com.example.repository;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserSearchCriteria;
+import com.example.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Фрагмент UserRepository: Specification + выборка сразу в UserRecord (JpaSpecificationExecutor вернул бы сущности)
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    private final EntityManager entityManager;
+
+    public UserSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<UserRecord> search(UserSearchCriteria criteria, Long after, Long before, Limit limit) {
+        Specification<User> specification = UserSpecifications.matching(criteria)
+                .and(before != null
+                        ? UserSpecifications.idLessThan(before)
+                        : UserSpecifications.idGreaterThan(after != null ? after : 0L));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserRecord> query = cb.createQuery(UserRecord.class);
+        Root<User> user = query.from(User.class);
+        query.select(cb.construct(UserRecord.class,
+                        user.get("id"), user.get("name"), user.get("email"),
+                        user.get("age"), user.get("createdAt"), user.get("version")))
+                .where(specification.toPredicate(user, query, cb))
+                .orderBy(before != null ? cb.desc(user.get("id")) : cb.asc(user.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> lockIds(Specification<User> specification, long after, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+        query.select(user.get("id"))
+                .where(specification.and(UserSpecifications.idGreaterThan(after)).toPredicate(user, query, cb))
+                .orderBy(cb.asc(user.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+}
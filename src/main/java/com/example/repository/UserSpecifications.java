@@ -0,0 +1,78 @@
+package com.example.repository;
+
+import com.example.dto.UserBulkFilter;
+import com.example.dto.UserSearchCriteria;
+import com.example.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+// Условия поиска; каждое ложится на свой индекс (idx_users_name_lower, idx_users_age, idx_users_created_at)
+public final class UserSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {}
+
+    public static Specification<User> matching(UserSearchCriteria criteria) {
+        return Specification.where(nameStartsWith(criteria.namePrefix()))
+                .and(ageAtLeast(criteria.minAge()))
+                .and(ageAtMost(criteria.maxAge()))
+                .and(createdFrom(criteria.createdFrom()))
+                .and(createdBefore(criteria.createdTo()));
+    }
+
+    public static Specification<User> matching(UserBulkFilter filter) {
+        return Specification.where(idIn(filter.getIds()))
+                .and(ageAtLeast(filter.getMinAge()))
+                .and(ageAtMost(filter.getMaxAge()))
+                .and(createdFrom(filter.getCreatedFrom()))
+                .and(createdBefore(filter.getCreatedTo()));
+    }
+
+    // lower(name) like 'prefix%' — ровно выражение индекса idx_users_name_lower (varchar_pattern_ops).
+    // ESCAPE указан явно: без него Hibernate для H2 отключает экранирование
+    public static Specification<User> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String pattern = escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%";
+        return (user, query, cb) -> cb.like(cb.lower(user.get("name")), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<User> ageAtLeast(Integer minAge) {
+        return minAge == null ? null : (user, query, cb) -> cb.greaterThanOrEqualTo(user.get("age"), minAge);
+    }
+
+    public static Specification<User> ageAtMost(Integer maxAge) {
+        return maxAge == null ? null : (user, query, cb) -> cb.lessThanOrEqualTo(user.get("age"), maxAge);
+    }
+
+    public static Specification<User> createdFrom(LocalDateTime from) {
+        return from == null ? null : (user, query, cb) -> cb.greaterThanOrEqualTo(user.get("createdAt"), from);
+    }
+
+    public static Specification<User> createdBefore(LocalDateTime to) {
+        return to == null ? null : (user, query, cb) -> cb.lessThan(user.get("createdAt"), to);
+    }
+
+    public static Specification<User> idIn(Collection<Long> ids) {
+        return ids == null ? null : (user, query, cb) -> user.get("id").in(ids);
+    }
+
+    public static Specification<User> idGreaterThan(Long id) {
+        return (user, query, cb) -> cb.greaterThan(user.get("id"), id);
+    }
+
+    public static Specification<User> idLessThan(Long id) {
+        return (user, query, cb) -> cb.lessThan(user.get("id"), id);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
+}
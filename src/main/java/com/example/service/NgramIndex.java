@@ -0,0 +1,450 @@
+package com.example.service;
+
+import com.example.dto.UserSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Триграммный индекс по имени и email для подсказок. Всё в примитивных массивах:
+// документ — порядковый номер записи, тексты лежат подряд в одном char[],
+// списки документов по триграмме — дельты в varint (обычно байт на вхождение).
+// Обновление пользователя — новая запись и пометка старой удалённой; удалённые вычищаются перестройкой
+final class NgramIndex {
+
+    static final int MIN_QUERY_LENGTH = 2;
+
+    // Сколько кандидатов проверить, прежде чем довольствоваться найденным (см. search)
+    private static final int SCAN_BUDGET = 10_000;
+    // Перестройка, когда удалённых записей больше живых (и их набралось достаточно)
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    private static final int INITIAL_DOCS = 1024;
+    private static final int INITIAL_POSTING_BYTES = 4;
+    private static final int BUCKETS = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Записи: id пользователя (0 — удалена), начало имени и email в texts; конец — начало следующей записи
+    private long[] userIds;
+    private int[] nameStarts;
+    private int[] emailStarts;
+    private char[] texts;
+    private int textLength;
+    private int docCount;
+    private int deadCount;
+    private LongLongMap docsByUser;
+
+    // Триграмма -> слот; по слоту — varint-дельты номеров записей, их длина в байтах, число и последний номер
+    private LongLongMap slotsByGram;
+    private byte[][] postings;
+    private int[] postingLengths;
+    private int[] postingCounts;
+    private int[] postingLastDocs;
+    private int slotCount;
+
+    NgramIndex() {
+        reset(INITIAL_DOCS);
+    }
+
+    // Добавляет или заменяет пользователя
+    void put(long userId, String name, String email) {
+        lock.writeLock().lock();
+        try {
+            int doc = (int) docsByUser.get(userId);
+            if (doc >= 0) {
+                if (sameText(doc, name, email)) {
+                    return;
+                }
+                markDead(doc);
+            }
+            docsByUser.put(userId, addDoc(userId, name, email));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            int doc = (int) docsByUser.remove(userId);
+            if (doc >= 0) {
+                markDead(doc);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ранжирование: имя начинается с запроса, затем слово имени, затем email, затем вхождение где угодно;
+    // внутри группы — в порядке добавления. Перебор кандидатов прекращается, когда первая группа заполнена
+    // или когда после SCAN_BUDGET кандидатов уже есть limit результатов: для частых коротких запросов
+    // это топ по уже просмотренной части, а не по всем пользователям
+    List<UserSuggestion> search(String query, int limit) {
+        char[] folded = fold(query);
+        if (folded.length < MIN_QUERY_LENGTH || limit <= 0) {
+            return List.of();
+        }
+        long[] grams = queryGrams(folded);
+
+        lock.readLock().lock();
+        try {
+            PostingCursor[] cursors = new PostingCursor[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                int slot = (int) slotsByGram.get(grams[i]);
+                if (slot < 0) {
+                    return List.of();
+                }
+                cursors[i] = new PostingCursor(postings[slot], postingLengths[slot], postingCounts[slot]);
+            }
+            // Перебор идёт по самому редкому списку, остальные только догоняют его
+            Arrays.sort(cursors, (a, b) -> Integer.compare(a.count, b.count));
+
+            int[][] buckets = new int[BUCKETS][limit];
+            int[] bucketSizes = new int[BUCKETS];
+            int found = 0;
+            int scanned = 0;
+            PostingCursor driver = cursors[0];
+            candidates:
+            while (driver.next()) {
+                int doc = driver.doc;
+                for (int i = 1; i < cursors.length; i++) {
+                    if (!cursors[i].advanceTo(doc)) {
+                        break candidates;
+                    }
+                    if (cursors[i].doc != doc) {
+                        continue candidates;
+                    }
+                }
+                scanned++;
+                if (userIds[doc] == 0) {
+                    continue;
+                }
+                int bucket = rank(doc, folded);
+                if (bucket >= 0 && bucketSizes[bucket] < limit) {
+                    buckets[bucket][bucketSizes[bucket]++] = doc;
+                    found++;
+                }
+                if (bucketSizes[0] == limit || (scanned >= SCAN_BUDGET && found >= limit)) {
+                    break;
+                }
+            }
+
+            List<UserSuggestion> result = new ArrayList<>(Math.min(found, limit));
+            for (int bucket = 0; bucket < BUCKETS && result.size() < limit; bucket++) {
+                for (int i = 0; i < bucketSizes[bucket] && result.size() < limit; i++) {
+                    int doc = buckets[bucket][i];
+                    result.add(new UserSuggestion(userIds[doc],
+                            new String(texts, nameStarts[doc], emailStarts[doc] - nameStarts[doc])));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Обрезает массивы до заполнения: после массовой загрузки запас от удвоений — до половины индекса
+    void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            userIds = Arrays.copyOf(userIds, Math.max(docCount, 1));
+            nameStarts = Arrays.copyOf(nameStarts, userIds.length);
+            emailStarts = Arrays.copyOf(emailStarts, userIds.length);
+            texts = Arrays.copyOf(texts, Math.max(textLength, 1));
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (postings[slot].length > postingLengths[slot]) {
+                    postings[slot] = Arrays.copyOf(postings[slot], postingLengths[slot]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docsByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Память под массивы индекса (ёмкость, а не заполнение) без заголовков мелких объектов
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) userIds.length * Long.BYTES
+                    + (long) (nameStarts.length + emailStarts.length) * Integer.BYTES
+                    + (long) texts.length * Character.BYTES
+                    + docsByUser.estimatedBytes()
+                    + slotsByGram.estimatedBytes()
+                    + (long) postings.length * 4
+                    + (long) (postingLengths.length + postingCounts.length + postingLastDocs.length) * Integer.BYTES;
+            for (int slot = 0; slot < slotCount; slot++) {
+                bytes += 16 + postings[slot].length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int addDoc(long userId, String name, String email) {
+        int doc = docCount;
+        if (doc == userIds.length) {
+            int capacity = Math.max(doc * 2, INITIAL_DOCS);
+            userIds = Arrays.copyOf(userIds, capacity);
+            nameStarts = Arrays.copyOf(nameStarts, capacity);
+            emailStarts = Arrays.copyOf(emailStarts, capacity);
+        }
+        userIds[doc] = userId;
+        nameStarts[doc] = textLength;
+        appendText(name);
+        emailStarts[doc] = textLength;
+        appendText(email);
+        docCount++;
+
+        addGrams(doc, nameStarts[doc], emailStarts[doc]);
+        addGrams(doc, emailStarts[doc], textLength);
+        return doc;
+    }
+
+    private void appendText(String value) {
+        if (textLength + value.length() > texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(texts.length * 2, textLength + value.length()));
+        }
+        value.getChars(0, value.length(), texts, textLength);
+        textLength += value.length();
+    }
+
+    // Поле индексируется с ведущим пробелом: триграммы " jo" отмечают начало поля и начало слова
+    private void addGrams(int doc, int from, int to) {
+        char a = ' ';
+        char b = from < to ? fold(texts[from]) : ' ';
+        for (int i = from + 1; i < to; i++) {
+            char c = fold(texts[i]);
+            addPosting(gram(a, b, c), doc);
+            a = b;
+            b = c;
+        }
+    }
+
+    private void addPosting(long gram, int doc) {
+        int slot = (int) slotsByGram.get(gram);
+        if (slot < 0) {
+            slot = newSlot();
+            slotsByGram.put(gram, slot);
+        } else if (postingLastDocs[slot] == doc) {
+            return;
+        }
+        int delta = doc - postingLastDocs[slot];
+        byte[] data = postings[slot];
+        int length = postingLengths[slot];
+        if (length + 5 > data.length) {
+            data = postings[slot] = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) (delta & 0x7F | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        postingLengths[slot] = length;
+        postingCounts[slot]++;
+        postingLastDocs[slot] = doc;
+    }
+
+    private int newSlot() {
+        if (slotCount == postings.length) {
+            int capacity = slotCount * 2;
+            postings = Arrays.copyOf(postings, capacity);
+            postingLengths = Arrays.copyOf(postingLengths, capacity);
+            postingCounts = Arrays.copyOf(postingCounts, capacity);
+            postingLastDocs = Arrays.copyOf(postingLastDocs, capacity);
+        }
+        int slot = slotCount++;
+        postings[slot] = new byte[INITIAL_POSTING_BYTES];
+        // Первая дельта считается от -1: курсор начинает с того же значения
+        postingLastDocs[slot] = -1;
+        return slot;
+    }
+
+    private void markDead(int doc) {
+        userIds[doc] = 0;
+        deadCount++;
+    }
+
+    private void compactIfNeeded() {
+        if (deadCount < MIN_DEAD_TO_COMPACT || deadCount <= docCount - deadCount) {
+            return;
+        }
+        long[] oldUserIds = userIds;
+        int[] oldNameStarts = nameStarts;
+        int[] oldEmailStarts = emailStarts;
+        char[] oldTexts = texts;
+        int oldTextLength = textLength;
+        int oldDocCount = docCount;
+
+        reset(Math.max(INITIAL_DOCS, oldDocCount - deadCount));
+        for (int doc = 0; doc < oldDocCount; doc++) {
+            if (oldUserIds[doc] != 0) {
+                int nameEnd = oldEmailStarts[doc];
+                int emailEnd = doc + 1 < oldDocCount ? oldNameStarts[doc + 1] : oldTextLength;
+                String name = new String(oldTexts, oldNameStarts[doc], nameEnd - oldNameStarts[doc]);
+                String email = new String(oldTexts, nameEnd, emailEnd - nameEnd);
+                docsByUser.put(oldUserIds[doc], addDoc(oldUserIds[doc], name, email));
+            }
+        }
+    }
+
+    private void reset(int docCapacity) {
+        userIds = new long[docCapacity];
+        nameStarts = new int[docCapacity];
+        emailStarts = new int[docCapacity];
+        texts = new char[docCapacity * 32];
+        textLength = 0;
+        docCount = 0;
+        deadCount = 0;
+        docsByUser = new LongLongMap(docCapacity);
+        slotsByGram = new LongLongMap(INITIAL_DOCS);
+        postings = new byte[INITIAL_DOCS][];
+        postingLengths = new int[INITIAL_DOCS];
+        postingCounts = new int[INITIAL_DOCS];
+        postingLastDocs = new int[INITIAL_DOCS];
+        slotCount = 0;
+    }
+
+    private boolean sameText(int doc, String name, String email) {
+        int emailEnd = doc + 1 < docCount ? nameStarts[doc + 1] : textLength;
+        return regionEquals(nameStarts[doc], emailStarts[doc], name)
+                && regionEquals(emailStarts[doc], emailEnd, email);
+    }
+
+    private boolean regionEquals(int from, int to, String value) {
+        if (to - from != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (texts[from + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 0 — имя начинается с запроса, 1 — слово имени, 2 — email начинается с запроса, 3 — вхождение где угодно,
+    // -1 — совпали только триграммы
+    private int rank(int doc, char[] query) {
+        int nameStart = nameStarts[doc];
+        int emailStart = emailStarts[doc];
+        int emailEnd = doc + 1 < docCount ? nameStarts[doc + 1] : textLength;
+
+        int nameMatch = indexOf(nameStart, emailStart, query);
+        if (nameMatch == nameStart) {
+            return 0;
+        }
+        boolean inName = nameMatch >= 0;
+        while (nameMatch >= 0) {
+            if (query[0] == ' ' || fold(texts[nameMatch - 1]) == ' ') {
+                return 1;
+            }
+            nameMatch = indexOf(nameMatch + 1, emailStart, query);
+        }
+        int emailMatch = indexOf(emailStart, emailEnd, query);
+        if (emailMatch == emailStart) {
+            return 2;
+        }
+        return inName || emailMatch >= 0 ? 3 : -1;
+    }
+
+    private int indexOf(int from, int to, char[] query) {
+        int last = to - query.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < query.length; j++) {
+                if (fold(texts[i + j]) != query[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    // Двухсимвольный запрос ищется как начало слова (" jo"), длиннее — по всем своим триграммам
+    private static long[] queryGrams(char[] query) {
+        if (query.length == 2) {
+            return new long[]{gram(' ', query[0], query[1])};
+        }
+        long[] grams = new long[query.length - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(query[i], query[i + 1], query[i + 2]);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    // Символы после fold ненулевые, поэтому ключ не совпадает с пустой ячейкой LongLongMap
+    private static long gram(char a, char b, char c) {
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    // Регистр не различается, любой не буквенно-цифровой символ (точка, @, дефис) считается пробелом
+    static char fold(char c) {
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ';
+    }
+
+    static char[] fold(String query) {
+        String trimmed = query.strip();
+        char[] folded = new char[trimmed.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(trimmed.charAt(i));
+        }
+        return folded;
+    }
+
+    // Последовательное чтение varint-дельт одного списка
+    private static final class PostingCursor {
+
+        private final byte[] data;
+        private final int length;
+        private final int count;
+        private int position;
+        private int doc = -1;
+
+        PostingCursor(byte[] data, int length, int count) {
+            this.data = data;
+            this.length = length;
+            this.count = count;
+        }
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            return true;
+        }
+
+        // Сдвигается до первой записи >= target; false — список кончился
+        boolean advanceTo(int target) {
+            while (doc < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Группировки по таблице пользователей для сверки UserStats; ключ null — поле не заполнено
+public record UserAggregates(long total,
+                             Map<Integer, Long> byAge,
+                             Map<LocalDate, Long> byCreatedDate,
+                             Map<String, Long> byEmailDomain) {
+}
@@ -0,0 +1,123 @@
+package com.example.service;
+
+import com.example.dto.UserBulkFilter;
+import com.example.dto.UserBulkOperationResponse;
+import com.example.dto.UserBulkUpdateRequest;
+import com.example.dto.UserRecord;
+import com.example.entity.User;
+import com.example.repository.UserRepository;
+import com.example.repository.UserSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Массовые изменение и удаление по фильтру. Фильтр выбирает пачку id под блокировкой строк, затем пачка
+// меняется одним UPDATE/DELETE ... WHERE id IN; каждая пачка — своя короткая транзакция, поэтому блокировки
+// держатся только на её строках. События на каждого затронутого пользователя — для кеша, подсказок и статистики
+@Service
+public class UserBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBulkService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public UserBulkService(UserRepository userRepository,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${app.users.bulk.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public UserBulkOperationResponse updateUsers(UserBulkUpdateRequest request) {
+        if ((request.getAge() == null) == (request.getAgeDelta() == null)) {
+            throw new IllegalArgumentException("Exactly one of 'age' and 'ageDelta' should be provided");
+        }
+        Integer age = request.getAge();
+        int ageDelta = request.getAgeDelta() != null ? request.getAgeDelta() : 0;
+
+        Specification<User> specification = matching(request.getFilter());
+        if (Math.abs((long) ageDelta) > UserBulkUpdateRequest.MAX_AGE_DELTA) {
+            throw new IllegalArgumentException("Age delta should be between -" + UserBulkUpdateRequest.MAX_AGE_DELTA
+                    + " and " + UserBulkUpdateRequest.MAX_AGE_DELTA);
+        }
+        // Возраст должен остаться положительным и не переполнить integer: такие пользователи в пачку не попадают.
+        // Иначе UPDATE упал бы посреди операции, когда предыдущие пачки уже закоммичены
+        if (ageDelta < 0) {
+            specification = specification.and(UserSpecifications.ageAtLeast(1 - ageDelta));
+        } else if (ageDelta > 0) {
+            specification = specification.and(UserSpecifications.ageAtMost(Integer.MAX_VALUE - ageDelta));
+        }
+
+        return forEachChunk("update", specification, ids -> {
+            int updated = userRepository.updateAgeByIds(ids, age, ageDelta);
+            List<UserRecord> users = userRepository.findRecordsByIds(ids);
+            users.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.updated(user)));
+            return updated;
+        });
+    }
+
+    public UserBulkOperationResponse deleteUsers(UserBulkFilter filter) {
+        return forEachChunk("delete", matching(filter), ids -> {
+            int deleted = userRepository.deleteUsersByIds(ids);
+            ids.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+            return deleted;
+        });
+    }
+
+    private UserBulkOperationResponse forEachChunk(String operation, Specification<User> specification,
+                                                   Function<List<Long>, Integer> action) {
+        long started = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        long after = 0;
+        while (true) {
+            long cursor = after;
+            ChunkResult chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = userRepository.lockIds(specification, cursor, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    return new ChunkResult(0, 0, cursor);
+                }
+                return new ChunkResult(ids.size(), action.apply(ids), ids.get(ids.size() - 1));
+            });
+            if (chunk.selected() == 0) {
+                break;
+            }
+            affected += chunk.affected();
+            chunks++;
+            after = chunk.lastId();
+            if (chunk.selected() < chunkSize) {
+                break;
+            }
+        }
+
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Bulk {}: {} users in {} chunks, {} ms", operation, affected, chunks, durationMillis);
+        return new UserBulkOperationResponse(affected, chunks, durationMillis);
+    }
+
+    private static Specification<User> matching(UserBulkFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            // Пустой фильтр задел бы всю таблицу: такую операцию надо задать явно, например диапазоном createdTo
+            throw new IllegalArgumentException("At least one filter condition should be provided");
+        }
+        return UserSpecifications.matching(filter);
+    }
+
+    private record ChunkResult(int selected, int affected, long lastId) {}
+}
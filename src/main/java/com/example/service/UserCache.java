@@ -0,0 +1,88 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Component
+public class UserCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final AsyncCache<Long, UserRecord> cache;
+
+    public UserCache(@Value("${app.users.cache.enabled:true}") boolean enabled,
+                     @Value("${app.users.cache.max-size:10000}") long maxSize,
+                     @Value("${app.users.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public UserRecord get(Long id, Function<Long, UserRecord> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // Под блокировкой кеша только регистрируется незавершённая загрузка, сам запрос к БД идёт снаружи.
+        // Иначе invalidate из AFTER_COMMIT, ещё держащий соединение, ждёт загрузку, которая ждёт соединение из пула
+        CompletableFuture<UserRecord> loading = new CompletableFuture<>();
+        CompletableFuture<UserRecord> result = cache.get(id, (key, executor) -> loading);
+        if (result == loading) {
+            try {
+                loading.complete(loader.apply(id));
+            } catch (RuntimeException ex) {
+                loading.completeExceptionally(ex);
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    public UserRecord getIfPresent(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        CompletableFuture<UserRecord> cached = cache.getIfPresent(id);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally() ? cached.join() : null;
+    }
+
+    // Прерывает и незавершённую загрузку: её результат уже не попадёт в кеш
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    // Инвалидация только после коммита: иначе параллельное чтение успеет снова закешировать старое состояние
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            invalidate(event.id());
+        }
+    }
+
+    // Метрики cache.gets (hit/miss), cache.evictions, cache.size с тегом cache=users
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+}
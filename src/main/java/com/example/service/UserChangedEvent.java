@@ -0,0 +1,25 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+
+// user — состояние после изменения, для подписчиков, которым оно нужно (подсказки, статистика); у DELETED null
+public record UserChangedEvent(Type type, Long id, UserRecord user) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static UserChangedEvent created(UserRecord user) {
+        return new UserChangedEvent(Type.CREATED, user.id(), user);
+    }
+
+    public static UserChangedEvent updated(UserRecord user) {
+        return new UserChangedEvent(Type.UPDATED, user.id(), user);
+    }
+
+    public static UserChangedEvent deleted(Long id) {
+        return new UserChangedEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.service;
+
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserCreateStatus;
+import com.example.dto.UserRequest;
+import com.example.exception.UserCreateRejectedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Асинхронное создание пользователей (app.users.async-create.enabled): запрос проверяется и ставится
+// в ограниченную очередь, фоновый поток пишет накопленное пачками через UserService.createUsers —
+// одна транзакция и JDBC-батч на пачку вместо INSERT и коммита на каждый запрос
+@Component
+@ConditionalOnProperty(name = "app.users.async-create.enabled", havingValue = "true")
+public class UserCreateQueue implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCreateQueue.class);
+    // Пустая очередь: как часто писатель проверяет, не пора ли остановиться
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final UserService userService;
+    private final UserLinkFactory userLinkFactory;
+    private final BlockingQueue<PendingCreate> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+    private final Cache<String, UserCreateStatus> statuses;
+    // email -> requestId: второй запрос с тем же email, пока первый в очереди, отклоняется сразу
+    private final ConcurrentHashMap<String, String> reservedEmails = new ConcurrentHashMap<>();
+    // Постановка в очередь под read-блокировкой, остановка — под write: после stop() в очередь ничего не попадёт
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public UserCreateQueue(UserService userService,
+                           UserLinkFactory userLinkFactory,
+                           @Value("${app.users.async-create.queue-capacity:10000}") int capacity,
+                           @Value("${app.users.async-create.batch-size:500}") int batchSize,
+                           @Value("${app.users.async-create.flush-interval:50ms}") Duration flushInterval,
+                           @Value("${app.users.async-create.status-ttl:10m}") Duration statusTtl,
+                           @Value("${app.users.async-create.status-max-size:100000}") long statusMaxSize,
+                           @Value("${app.users.async-create.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.userService = userService;
+        this.userLinkFactory = userLinkFactory;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        // Не меньше очереди и пачки у писателя, чтобы хватало места ожидающим статусам; всплеск запросов
+        // вытесняет старые завершённые статусы раньше TTL — их запрос вернёт 404
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .maximumSize(Math.max(statusMaxSize, (long) capacity + batchSize))
+                .build();
+    }
+
+    public EntityModel<UserCreateStatus> enqueue(UserRequest userRequest) {
+        String requestId = UUID.randomUUID().toString();
+        String email = userRequest.getEmail();
+
+        acceptLock.readLock().lock();
+        try {
+            if (!running) {
+                rejected.incrementAndGet();
+                throw UserCreateRejectedException.shuttingDown();
+            }
+            if (reservedEmails.putIfAbsent(email, requestId) != null) {
+                throw new IllegalArgumentException("User with email " + email + " already exists");
+            }
+            // Статус до постановки в очередь: писатель может обработать запрос раньше, чем мы вернёмся
+            UserCreateStatus pending = UserCreateStatus.pending(requestId, email);
+            statuses.put(requestId, pending);
+            if (!queue.offer(new PendingCreate(requestId, userRequest))) {
+                statuses.invalidate(requestId);
+                reservedEmails.remove(email, requestId);
+                rejected.incrementAndGet();
+                throw UserCreateRejectedException.queueFull(capacity);
+            }
+            return toModel(pending);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    public Optional<EntityModel<UserCreateStatus>> getStatus(String requestId) {
+        return Optional.ofNullable(statuses.getIfPresent(requestId)).map(this::toModel);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "user-create-writer");
+        writer.start();
+    }
+
+    // Писатель дописывает всё, что уже принято, и только потом завершается
+    @Override
+    public void stop() {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Create queue was not drained within {}, {} requests left unwritten", shutdownTimeout, queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Останавливается после веб-сервера (DEFAULT_PHASE - 2048), когда новые запросы уже не приходят,
+    // и до закрытия пула соединений
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException ex) {
+                log.warn("Create queue writer interrupted, {} requests left unwritten", queue.size());
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Create queue writer failed on a batch of {} requests", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Пачка добирается до batchSize, но первый запрос ждёт не дольше flushInterval.
+    // Ожидание кусками по IDLE_POLL_MILLIS: при остановке накопленное пишется сразу
+    private void fill(List<PendingCreate> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingCreate next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                    TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    void write(List<PendingCreate> batch) {
+        try {
+            List<UserBatchItemResult> results = userService.createUsers(
+                    batch.stream().map(PendingCreate::request).toList()).getResults();
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i));
+            }
+        } catch (IllegalArgumentException ex) {
+            // Email из пачки успели зарегистрировать синхронно: пачка откатилась, пишем по одному
+            if (batch.size() > 1) {
+                batch.forEach(pending -> write(List.of(pending)));
+            } else {
+                fail(batch.get(0), ex.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to write {} queued users", batch.size(), ex);
+            batch.forEach(pending -> fail(pending, "Failed to create user: " + ex.getMessage()));
+        }
+    }
+
+    private void complete(PendingCreate pending, UserBatchItemResult result) {
+        if (result.getStatus() == UserBatchItemResult.Status.CREATED) {
+            finish(pending, UserCreateStatus.created(pending.requestId(), result.getId(), result.getEmail()));
+        } else {
+            fail(pending, result.getMessage());
+        }
+    }
+
+    private void fail(PendingCreate pending, String message) {
+        finish(pending, UserCreateStatus.failed(pending.requestId(), pending.request().getEmail(), message));
+    }
+
+    private void finish(PendingCreate pending, UserCreateStatus status) {
+        statuses.put(pending.requestId(), status);
+        reservedEmails.remove(pending.request().getEmail(), pending.requestId());
+    }
+
+    private EntityModel<UserCreateStatus> toModel(UserCreateStatus status) {
+        EntityModel<UserCreateStatus> model = EntityModel.of(status, userLinkFactory.createRequest(status.getRequestId(), IanaLinkRelations.SELF_VALUE));
+        if (status.getUserId() != null) {
+            model.add(userLinkFactory.user(status.getUserId(), "user"));
+        }
+        return model;
+    }
+
+    // users.create.queue.size — глубина очереди, users.create.queue.rejected — отказы 429/503
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.create.queue.size", queue, BlockingQueue::size)
+                .description("Create requests waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("users.create.queue.rejected", rejected, AtomicLong::get)
+                .description("Create requests rejected because the queue was full or stopped")
+                .register(registry);
+    }
+
+    record PendingCreate(String requestId, UserRequest request) {}
+}
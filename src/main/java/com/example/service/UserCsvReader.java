@@ -0,0 +1,124 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Потоковое чтение CSV по строке: в памяти только буфер и текущая строка. Кавычки и "" внутри них
+// поддерживаются, перевод строки внутри кавычек — нет (такая строка отклоняется). Строка длиннее
+// MAX_LINE_LENGTH тоже отклоняется, её остаток пропускается без накопления: файл без переводов строки
+// не загружается в память целиком
+final class UserCsvReader implements Closeable {
+
+    // name (100) + email (150) + возраст, разделители и кавычки с запасом
+    static final int MAX_LINE_LENGTH = 100 + 150 + 64;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH);
+    private int position;
+    private int limit;
+    // Предыдущая строка закончилась на '\r': следующий '\n' — часть того же перевода строки
+    private boolean skipLineFeed;
+    private boolean lineTooLong;
+    private long lineNumber;
+
+    UserCsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Следующая непустая строка или null в конце файла
+    CsvLine next() throws IOException {
+        String text;
+        do {
+            if (!readLine()) {
+                return null;
+            }
+            lineNumber++;
+            if (lineTooLong) {
+                return new CsvLine(lineNumber, List.of(), "Line exceeds " + MAX_LINE_LENGTH + " characters");
+            }
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line.deleteCharAt(0);
+            }
+            text = line.toString();
+        } while (text.isBlank());
+        return parse(lineNumber, text);
+    }
+
+    // Как BufferedReader.readLine (\n, \r или \r\n), но в line попадает не больше MAX_LINE_LENGTH символов
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        lineTooLong = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                int count = reader.read(buffer, 0, buffer.length);
+                if (count <= 0) {
+                    position = limit = 0;
+                    return read;
+                }
+                position = 0;
+                limit = count;
+            }
+            char c = buffer[position++];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            read = true;
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                return true;
+            }
+            if (line.length() < MAX_LINE_LENGTH) {
+                line.append(c);
+            } else {
+                lineTooLong = true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static CsvLine parse(long number, String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return new CsvLine(number, List.of(), "Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return new CsvLine(number, fields, null);
+    }
+
+    // error != null — строку не удалось разобрать
+    record CsvLine(long number, List<String> fields, String error) {}
+}
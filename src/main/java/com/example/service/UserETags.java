@@ -0,0 +1,95 @@
+package com.example.service;
+
+import com.example.dto.UserResponse;
+import com.example.dto.UserVersion;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+// Строгие ETag: для пользователя — его версия, для страницы — отпечаток пар (id, version) и ссылок next/prev.
+// Представления, кроме HAL, отличаются суффиксом: "3-cbor", "<страница>-compact"
+public final class UserETags {
+
+    private UserETags() {}
+
+    public static String ofUser(Long version) {
+        return String.valueOf(version);
+    }
+
+    // Один тег на все форматы нарушал бы строгое сравнение: If-None-Match от CBOR-ответа давал бы 304 клиенту HAL
+    public static String ofRepresentation(String eTag, String representation) {
+        return representation == null ? eTag : eTag + "-" + representation;
+    }
+
+    // If-Match с тегом любого представления: версия — часть до суффикса
+    public static String withoutRepresentation(String eTag) {
+        int suffix = eTag.indexOf('-');
+        return suffix > 0 ? eTag.substring(0, suffix) : eTag;
+    }
+
+    public static String ofPage(CollectionModel<EntityModel<UserResponse>> users) {
+        List<UserVersion> page = users.getContent().stream()
+                .map(EntityModel::getContent)
+                .filter(Objects::nonNull)
+                .map(user -> new UserVersion(user.getId(), user.getVersion()))
+                .toList();
+        return ofPage(page,
+                users.getLink(IanaLinkRelations.NEXT).isPresent(),
+                users.getLink(IanaLinkRelations.PREV).isPresent());
+    }
+
+    public static String ofPage(UserRecordPage users) {
+        List<UserVersion> page = users.users().stream()
+                .map(user -> new UserVersion(user.id(), user.version()))
+                .toList();
+        return ofPage(page, users.nextAfter() != null, users.prevBefore() != null);
+    }
+
+    public static String ofPage(List<UserVersion> page, boolean hasNext, boolean hasPrev) {
+        // Максимальная версия + количество не ловит изменение строки с меньшей версией, поэтому хешируем все пары
+        ByteBuffer buffer = ByteBuffer.allocate(page.size() * 2 * Long.BYTES + 2);
+        for (UserVersion user : page) {
+            buffer.putLong(user.id());
+            buffer.putLong(user.version() != null ? user.version() : -1L);
+        }
+        buffer.put((byte) (hasNext ? 1 : 0));
+        buffer.put((byte) (hasPrev ? 1 : 0));
+        return page.size() + "-" + HexFormat.of().formatHex(sha256(buffer.array()), 0, 16);
+    }
+
+    // Сравнение для If-None-Match: список тегов, "*" или слабые W/"..." (слабое сравнение по RFC 9110)
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("\"" + eTag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
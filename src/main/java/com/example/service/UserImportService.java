@@ -0,0 +1,290 @@
+package com.example.service;
+
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserImportResponse;
+import com.example.dto.UserImportResponse.RejectedLine;
+import com.example.dto.UserImportRow;
+import com.example.dto.UserRecord;
+import com.example.dto.UserRequest;
+import com.example.repository.UserCopyRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Импорт CSV (name,email,age; заголовок необязателен) потоком: в памяти только текущая пачка строк.
+// На PostgreSQL пачка загружается COPY во временную таблицу и переносится в users одним INSERT ... ON CONFLICT,
+// на остальных БД — через UserService.createUsers (JDBC-батч). Каждая пачка — своя транзакция:
+// при ошибке на середине файла уже записанные пачки остаются
+@Service
+public class UserImportService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+    private static final List<String> DEFAULT_COLUMNS = List.of("name", "email", "age");
+
+    private final UserService userService;
+    private final UserCopyRepository userCopyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxReportedRejections;
+    private final LongAdder acceptedTotal = new LongAdder();
+    private final LongAdder rejectedTotal = new LongAdder();
+    // Определяется при первом импорте по метаданным соединения
+    private volatile Boolean copySupported;
+
+    @Autowired
+    public UserImportService(UserService userService,
+                             UserCopyRepository userCopyRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.users.import.chunk-size:5000}") int chunkSize,
+                             @Value("${app.users.import.max-reported-rejections:10000}") int maxReportedRejections) {
+        this.userService = userService;
+        this.userCopyRepository = userCopyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public UserImportResponse importCsv(InputStream body) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress(maxReportedRejections);
+        boolean useCopy = isCopySupported();
+
+        try (UserCsvReader reader = new UserCsvReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            UserCsvReader.CsvLine line = reader.next();
+            int[] columns = columnsOf(DEFAULT_COLUMNS);
+            if (line != null && line.error() == null && isHeader(line.fields())) {
+                columns = columnsOf(line.fields().stream().map(field -> field.strip().toLowerCase(Locale.ROOT)).toList());
+                line = reader.next();
+            }
+
+            List<UserImportRow> chunk = new ArrayList<>(chunkSize);
+            for (; line != null; line = reader.next()) {
+                progress.rows++;
+                UserImportRow row = toRow(line, columns, progress);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, useCopy, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, useCopy, progress);
+            }
+        }
+
+        long durationNanos = System.nanoTime() - started;
+        long durationMillis = durationNanos / 1_000_000;
+        double rowsPerSecond = durationNanos > 0 ? progress.rows * 1e9 / durationNanos : 0;
+        log.info("Imported users: rows={}, accepted={}, rejected={}, {} ms, {} rows/s, copy={}",
+                progress.rows, progress.accepted, progress.rejected, durationMillis, Math.round(rowsPerSecond), useCopy);
+        // Отказы проверки и отказы БД по одной пачке попадают в список в разное время
+        progress.rejectedLines.sort(Comparator.comparingLong(RejectedLine::line));
+        return new UserImportResponse(progress.rows, progress.accepted, progress.rejected,
+                durationMillis, rowsPerSecond, progress.rejectedLines, progress.rejected > progress.rejectedLines.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.import.rows", acceptedTotal, LongAdder::sum)
+                .tag("outcome", "accepted")
+                .description("CSV import rows written to the database")
+                .register(registry);
+        FunctionCounter.builder("users.import.rows", rejectedTotal, LongAdder::sum)
+                .tag("outcome", "rejected")
+                .description("CSV import rows rejected by validation or email conflicts")
+                .register(registry);
+    }
+
+    private void writeChunk(List<UserImportRow> chunk, boolean useCopy, Progress progress) {
+        if (useCopy) {
+            copyChunk(chunk, progress);
+        } else {
+            insertChunk(chunk, progress);
+        }
+    }
+
+    private void copyChunk(List<UserImportRow> chunk, Progress progress) {
+        Map<Long, UserRecord> created = transactionTemplate.execute(status -> {
+            Map<Long, UserRecord> inserted = userCopyRepository.copyAndMerge(chunk);
+            inserted.values().forEach(user -> eventPublisher.publishEvent(UserChangedEvent.created(user)));
+            return inserted;
+        });
+        for (UserImportRow row : chunk) {
+            if (created.containsKey(row.line())) {
+                progress.accept();
+            } else {
+                progress.reject(row.line(), "User with email " + row.email() + " already exists");
+            }
+        }
+        acceptedTotal.add(created.size());
+        rejectedTotal.add(chunk.size() - created.size());
+    }
+
+    private void insertChunk(List<UserImportRow> chunk, Progress progress) {
+        List<UserRequest> requests = chunk.stream()
+                .map(row -> new UserRequest(row.name(), row.email(), row.age()))
+                .toList();
+        List<UserBatchItemResult> results;
+        try {
+            results = userService.createUsers(requests).getResults();
+        } catch (IllegalArgumentException ex) {
+            // Email пачки заняли параллельно: пачка откатилась целиком, строки повторяются по одной,
+            // конфликтные попадают в отказы — как строки, пропущенные ON CONFLICT на пути COPY
+            insertRowByRow(chunk, requests, progress);
+            return;
+        }
+        for (UserBatchItemResult result : results) {
+            long line = chunk.get(result.getIndex()).line();
+            if (result.getStatus() == UserBatchItemResult.Status.CREATED) {
+                progress.accept();
+                acceptedTotal.increment();
+            } else {
+                progress.reject(line, result.getMessage());
+                rejectedTotal.increment();
+            }
+        }
+    }
+
+    private void insertRowByRow(List<UserImportRow> chunk, List<UserRequest> requests, Progress progress) {
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                userService.createUser(requests.get(i));
+                progress.accept();
+                acceptedTotal.increment();
+            } catch (IllegalArgumentException ex) {
+                progress.reject(chunk.get(i).line(), ex.getMessage());
+                rejectedTotal.increment();
+            }
+        }
+    }
+
+    private UserImportRow toRow(UserCsvReader.CsvLine line, int[] columns, Progress progress) {
+        String error = line.error();
+        UserImportRow row = null;
+        int required = Arrays.stream(columns).max().orElse(0) + 1;
+        if (error == null && line.fields().size() < required) {
+            error = "Expected " + required + " fields, got " + line.fields().size();
+        }
+        if (error == null) {
+            String name = line.fields().get(columns[0]).strip();
+            String email = line.fields().get(columns[1]).strip();
+            String age = line.fields().get(columns[2]).strip();
+            error = validate(name, email, age);
+            if (error == null) {
+                row = new UserImportRow(line.number(), name, email, Integer.parseInt(age));
+            }
+        }
+        if (error != null) {
+            progress.reject(line.number(), error);
+            rejectedTotal.increment();
+        }
+        return row;
+    }
+
+    private String validate(String name, String email, String age) {
+        Integer parsedAge = null;
+        if (!age.isEmpty()) {
+            try {
+                parsedAge = Integer.valueOf(age);
+            } catch (NumberFormatException ex) {
+                return "Age should be a number";
+            }
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(new UserRequest(name, email, parsedAge));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private boolean isCopySupported() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            supported = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            copySupported = supported;
+        }
+        return supported;
+    }
+
+    // Первая строка — заголовок, если среди её полей есть email: у данных в этой колонке всегда есть '@'
+    private static boolean isHeader(List<String> fields) {
+        return fields.stream().anyMatch(field -> field.strip().equalsIgnoreCase("email"));
+    }
+
+    // Индексы колонок name, email, age
+    private static int[] columnsOf(List<String> header) {
+        int[] columns = new int[DEFAULT_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.indexOf(DEFAULT_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("CSV header should contain columns " + String.join(", ", DEFAULT_COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private static final class Progress {
+
+        private final int maxReportedRejections;
+        private final List<RejectedLine> rejectedLines = new ArrayList<>();
+        private long rows;
+        private long accepted;
+        private long rejected;
+
+        Progress(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+
+        void accept() {
+            accepted++;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejectedLines.size() < maxReportedRejections) {
+                rejectedLines.add(new RejectedLine(line, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+
+import java.util.List;
+
+// Страница без HAL: строки и курсоры соседних страниц; null — такой страницы нет
+public record UserRecordPage(List<UserRecord> users, Long nextAfter, Long prevBefore) {
+}
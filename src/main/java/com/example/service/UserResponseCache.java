@@ -0,0 +1,134 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Готовые байты ответов GET /api/users/{id} (app.users.response-cache): на пользователя — версия и её
+// представления по вариантам (тип ответа и self-ссылка, в которой схема и хост запроса). Вес записи — её байты,
+// вытеснение по max-bytes. Байты другой версии не отдаются, поэтому инвалидация по событиям только освобождает
+// память. off-heap: байты в direct ByteBuffer, куча не растёт вместе с кешем
+@Component
+@ConditionalOnProperty(name = "app.users.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class UserResponseCache implements MeterBinder {
+
+    private final boolean offHeap;
+    private final Cache<Long, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserResponseCache(@Value("${app.users.response-cache.max-bytes:64MB}") DataSize maxBytes,
+                             @Value("${app.users.response-cache.off-heap:false}") boolean offHeap) {
+        this.offHeap = offHeap;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((Long id, Entry entry) -> entry.bytes())
+                .recordStats()
+                .build();
+    }
+
+    // null — нет байтов этой версии для варианта. Позиция у каждого вызова своя, содержимое менять нельзя
+    public ByteBuffer get(long id, long version, String variant) {
+        Entry entry = cache.getIfPresent(id);
+        ByteBuffer bytes = entry != null && entry.version() == version ? entry.variants().get(variant) : null;
+        if (bytes == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return bytes.duplicate();
+    }
+
+    public ByteBuffer put(long id, long version, String variant, byte[] body) {
+        ByteBuffer bytes = store(body);
+        cache.asMap().compute(id, (key, entry) -> {
+            if (entry == null || entry.version() < version) {
+                return new Entry(version, Map.of(variant, bytes), body.length);
+            }
+            // Запоздавший ответ по старой версии не вытесняет новую
+            if (entry.version() > version) {
+                return entry;
+            }
+            Map<String, ByteBuffer> variants = new HashMap<>(entry.variants());
+            ByteBuffer replaced = variants.put(variant, bytes);
+            int size = entry.bytes() + body.length - (replaced != null ? replaced.capacity() : 0);
+            return new Entry(version, Map.copyOf(variants), size);
+        });
+        return bytes.duplicate();
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            invalidate(event.id());
+        }
+    }
+
+    // Вставки, удаления и вытеснение Caffeine применяет асинхронно; cleanUp учитывает ещё не применённые
+    public long weightedBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction().orElseThrow().weightedSize().orElse(0L);
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
+
+    // Direct-буфер освобождается, когда сборщик соберёт вытесненную запись; потолок — -XX:MaxDirectMemorySize
+    private ByteBuffer store(byte[] body) {
+        if (!offHeap) {
+            // Без asReadOnlyBuffer: ответ пишется прямо из массива (hasArray)
+            return ByteBuffer.wrap(body);
+        }
+        return ByteBuffer.allocateDirect(body.length).put(body).flip().asReadOnlyBuffer();
+    }
+
+    // users.response.cache.requests (hit/miss), hit.ratio, bytes — занятый объём, size, evictions
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.response.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Lookups of serialized user responses")
+                .register(registry);
+        FunctionCounter.builder("users.response.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Lookups of serialized user responses")
+                .register(registry);
+        Gauge.builder("users.response.cache.hit.ratio", this, UserResponseCache::hitRatio)
+                .description("Share of user responses written from cached bytes")
+                .register(registry);
+        Gauge.builder("users.response.cache.bytes", this, UserResponseCache::weightedBytes)
+                .tag("storage", offHeap ? "off-heap" : "heap")
+                .baseUnit("bytes")
+                .description("Serialized user responses held by the cache")
+                .register(registry);
+        Gauge.builder("users.response.cache.size", cache, Cache::estimatedSize)
+                .description("Users with cached responses")
+                .register(registry);
+        FunctionCounter.builder("users.response.cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Users evicted to stay within max-bytes")
+                .register(registry);
+    }
+
+    private record Entry(long version, Map<String, ByteBuffer> variants, int bytes) {}
+}
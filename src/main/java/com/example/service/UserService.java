@@ -1,122 +1,431 @@
 package com.example.service;
 
-import com.example.controller.UserController;
+import com.example.config.DataSourceRouter;
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.dto.UserSearchCriteria;
+import com.example.dto.UserVersion;
 import com.example.entity.User;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
 import com.example.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.util.stream.Stream;
 
+// Таймер users.service с тегами class/method/exception на каждый публичный метод
 @Service
 @Transactional
+@Timed(value = "users.service", histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final Validator validator;
+    private final UserLinkFactory userLinkFactory;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       Validator validator,
+                       UserLinkFactory userLinkFactory,
+                       UserCache userCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.validator = validator;
+        this.userLinkFactory = userLinkFactory;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public EntityModel<UserResponse> createUser(UserRequest userRequest) {
-        // Проверка уникальности email
-        if (userRepository.existsByEmail(userRequest.getEmail())) {
-            throw new IllegalArgumentException("User with email " + userRequest.getEmail() + " already exists");
-        }
-
         User user = new User(userRequest.getName(), userRequest.getEmail(), userRequest.getAge());
-        User savedUser = userRepository.save(user);
+        User savedUser = saveAndFlush(user);
+        eventPublisher.publishEvent(UserChangedEvent.created(toRecord(savedUser)));
 
         UserResponse response = convertToResponse(savedUser);
         return EntityModel.of(response,
-                WebMvcLinkBuilder.linkTo(methodOn(UserController.class).getUserById(savedUser.getId())).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users")
+                userLinkFactory.self(savedUser.getId()),
+                userLinkFactory.users("all-users")
         );
     }
 
+    public UserBatchResponse createUsers(List<UserRequest> userRequests) {
+        UserBatchItemResult[] results = new UserBatchItemResult[userRequests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < userRequests.size(); i++) {
+            UserRequest userRequest = userRequests.get(i);
+            if (userRequest == null) {
+                results[i] = UserBatchItemResult.invalid(i, null, "User data is required");
+                continue;
+            }
+
+            Set<ConstraintViolation<UserRequest>> violations = validator.validate(userRequest);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = UserBatchItemResult.invalid(i, userRequest.getEmail(), message);
+            } else if (candidates.putIfAbsent(userRequest.getEmail(), i) != null) {
+                results[i] = UserBatchItemResult.duplicate(i, userRequest.getEmail(),
+                        "Email " + userRequest.getEmail() + " is duplicated within the batch");
+            }
+        }
+
+        // Проверка уникальности email для всей пачки одним запросом
+        Set<String> existingEmails = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findExistingEmails(candidates.keySet()));
+
+        List<User> newUsers = new ArrayList<>(candidates.size());
+        List<Integer> newUserIndexes = new ArrayList<>(candidates.size());
+        candidates.forEach((email, index) -> {
+            if (existingEmails.contains(email)) {
+                results[index] = UserBatchItemResult.duplicate(index, email,
+                        "User with email " + email + " already exists");
+            } else {
+                UserRequest userRequest = userRequests.get(index);
+                newUsers.add(new User(userRequest.getName(), email, userRequest.getAge()));
+                newUserIndexes.add(index);
+            }
+        });
+
+        // INSERT-ы уходят JDBC-батчами (hibernate.jdbc.batch_size)
+        List<User> savedUsers;
+        try {
+            savedUsers = userRepository.saveAll(newUsers);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            if (isEmailConflict(ex)) {
+                throw new IllegalArgumentException("Some emails of the batch were registered concurrently, retry the batch");
+            }
+            throw ex;
+        }
+        for (int i = 0; i < savedUsers.size(); i++) {
+            User savedUser = savedUsers.get(i);
+            int index = newUserIndexes.get(i);
+            results[index] = UserBatchItemResult.created(index, savedUser.getId(), savedUser.getEmail());
+            eventPublisher.publishEvent(UserChangedEvent.created(toRecord(savedUser)));
+        }
+
+        return new UserBatchResponse(Arrays.asList(results));
+    }
+
     @Transactional(readOnly = true)
-    public CollectionModel<EntityModel<UserResponse>> getAllUsers() {
-        List<EntityModel<UserResponse>> users = userRepository.findAll()
-                .stream()
-                .map(this::convertToResponse)
-                .map(response -> EntityModel.of(response,
-                        linkTo(methodOn(UserController.class).getUserById(response.getId())).withSelfRel(),
-                        linkTo(methodOn(UserController.class).updateUser(response.getId(), null)).withRel("update"),
-                        linkTo(methodOn(UserController.class).deleteUser(response.getId())).withRel("delete")
-                ))
-                .collect(Collectors.toList());
+    public CollectionModel<EntityModel<UserResponse>> getAllUsers(Long after, Long before, int size) {
+        Window<UserRecord> window = fetchWindow(after, before, size, UserRecord.class);
+        return toPageModel(window, after, before,
+                (cursorAfter, cursorBefore, rel) -> userLinkFactory.usersPage(cursorAfter, cursorBefore, size, rel));
+    }
 
-        return CollectionModel.of(users,
-                linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel(),
-                linkTo(methodOn(UserController.class).createUser(null)).withRel("create-user")
-        );
+    // Фильтры — одним динамическим запросом по индексам, страницы — тем же keyset-курсором по id
+    @Transactional(readOnly = true)
+    public CollectionModel<EntityModel<UserResponse>> searchUsers(UserSearchCriteria criteria, Long after, Long before, int size) {
+        Window<UserRecord> window = fetchWindow(after, before, size,
+                (cursorAfter, cursorBefore, limit) -> userRepository.search(criteria, cursorAfter, cursorBefore, limit));
+        return toPageModel(window, after, before,
+                (cursorAfter, cursorBefore, rel) -> userLinkFactory.searchPage(criteria, cursorAfter, cursorBefore, size, rel));
+    }
+
+    // Компактный вид тех же страниц: проекции отдаются как есть, без UserResponse, EntityModel и ссылок на строки
+    @Transactional(readOnly = true)
+    public UserRecordPage getUserRecords(Long after, Long before, int size) {
+        return toRecordPage(fetchWindow(after, before, size, UserRecord.class));
+    }
+
+    @Transactional(readOnly = true)
+    public UserRecordPage searchUserRecords(UserSearchCriteria criteria, Long after, Long before, int size) {
+        return toRecordPage(fetchWindow(after, before, size,
+                (cursorAfter, cursorBefore, limit) -> userRepository.search(criteria, cursorAfter, cursorBefore, limit)));
     }
 
+    // ETag страницы по проекции (id, version) того же окна, без загрузки сущностей и сборки EntityModel
     @Transactional(readOnly = true)
+    public String getUsersPageETag(Long after, Long before, int size) {
+        Window<UserVersion> window = fetchWindow(after, before, size, UserVersion.class);
+        return UserETags.ofPage(window.page(), window.hasNext(), window.hasPrev());
+    }
+
+    // Версия для If-None-Match: из кеша, иначе одним SELECT version
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Long getUserVersion(Long id) {
+        UserRecord cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.version();
+        }
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+    }
+
+    // SUPPORTS: при попадании в кеш транзакция и соединение с БД не открываются. Промах читает основную БД:
+    // запись с отстающей реплики осталась бы в кеше до ttl, событие об изменении уже прошло
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public EntityModel<UserResponse> getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+        UserRecord user = userCache.get(id, key -> {
+            try (DataSourceRouter.PrimaryPin pin = DataSourceRouter.pinToPrimary()) {
+                return userRepository.findRecordById(key).orElse(null);
+            }
+        });
+        if (user == null) {
+            throw new UserNotFoundException(id);
+        }
 
         UserResponse response = convertToResponse(user);
-        return EntityModel.of(response,
-                linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"),
-                linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"),
-                linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete")
-        );
+        return toModel(response);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserRecord> consumer) {
+        // Проекция не попадает в persistence context, поэтому он не растёт вместе с выгрузкой
+        try (Stream<UserRecord> users = userRepository.streamAllRecordsOrderById()) {
+            users.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserAggregates aggregateUsers() {
+        return new UserAggregates(userRepository.count(),
+                toCounts(userRepository.countByAge()),
+                toCounts(userRepository.countByCreatedDate()),
+                toCounts(userRepository.countByEmailDomain()));
     }
 
     public EntityModel<UserResponse> updateUser(Long id, UserRequest userRequest) {
+        return updateUser(id, userRequest, null);
+    }
+
+    public EntityModel<UserResponse> updateUser(Long id, UserRequest userRequest, Long expectedVersion) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+                .orElseThrow(() -> new UserNotFoundException(id));
 
-        // Проверка уникальности email для других пользователей
-        if (!user.getEmail().equals(userRequest.getEmail()) &&
-                userRepository.existsByEmailAndIdNot(userRequest.getEmail(), id)) {
-            throw new IllegalArgumentException("User with email " + userRequest.getEmail() + " already exists");
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new VersionConflictException(id, expectedVersion, user.getVersion());
         }
 
         user.setName(userRequest.getName());
         user.setEmail(userRequest.getEmail());
         user.setAge(userRequest.getAge());
 
-        User updatedUser = userRepository.save(user);
+        User updatedUser = saveAndFlush(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(toRecord(updatedUser)));
         UserResponse response = convertToResponse(updatedUser);
 
-        return EntityModel.of(response,
-                linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"),
-                linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"),
-                linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete")
-        );
+        return toModel(response);
+    }
+
+    public EntityModel<UserResponse> patchUser(Long id, UserPatchRequest patchRequest, Long expectedVersion) {
+        if (patchRequest.isEmpty()) {
+            throw new IllegalArgumentException("At least one field should be provided");
+        }
+
+        int updated;
+        try {
+            updated = expectedVersion == null
+                    ? userRepository.patch(id, patchRequest.getName(), patchRequest.getEmail(), patchRequest.getAge())
+                    : userRepository.patchIfVersion(id, expectedVersion,
+                            patchRequest.getName(), patchRequest.getEmail(), patchRequest.getAge());
+        } catch (DataIntegrityViolationException ex) {
+            throw translateEmailConflict(ex, patchRequest.getEmail());
+        }
+
+        // Ни одна строка не обновлена: либо пользователя нет, либо версия устарела
+        if (updated == 0) {
+            Long currentVersion = userRepository.findVersionById(id)
+                    .orElseThrow(() -> new UserNotFoundException(id));
+            throw new VersionConflictException(id, expectedVersion, currentVersion);
+        }
+
+        UserRecord patchedUser = userRepository.findRecordById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        eventPublisher.publishEvent(UserChangedEvent.updated(patchedUser));
+        return toModel(convertToResponse(patchedUser));
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("User not found with id: " + id);
+        if (userRepository.deleteUserById(id) == 0) {
+            throw new UserNotFoundException(id);
+        }
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+    }
+
+    public UserBulkDeleteResponse deleteUsers(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        int deleted = userRepository.deleteUsersByIds(uniqueIds);
+
+        // Какие именно id существовали, неизвестно: событие на каждый запрошенный
+        uniqueIds.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+        return new UserBulkDeleteResponse(uniqueIds.size(), deleted);
+    }
+
+    // Уникальность email гарантирует ограничение uk_users_email в БД:
+    // отдельный SELECT перед записью лишний и не защищает от гонки
+    private User saveAndFlush(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateEmailConflict(ex, user.getEmail());
+        }
+    }
+
+    private static RuntimeException translateEmailConflict(DataIntegrityViolationException ex, String email) {
+        if (isEmailConflict(ex)) {
+            return new IllegalArgumentException("User with email " + email + " already exists");
+        }
+        return ex;
+    }
+
+    private <T> Window<T> fetchWindow(Long after, Long before, int size, Class<T> type) {
+        return fetchWindow(after, before, size, (cursorAfter, cursorBefore, limit) -> cursorBefore != null
+                ? userRepository.findByIdLessThanOrderByIdDesc(cursorBefore, limit, type)
+                : userRepository.findByIdGreaterThanOrderByIdAsc(cursorAfter != null ? cursorAfter : 0L, limit, type));
+    }
+
+    // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+    private static <T> Window<T> fetchWindow(Long after, Long before, int size, KeysetQuery<T> query) {
+        List<T> rows = query.fetch(after, before, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<T> page;
+        if (before != null) {
+            page = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+            Collections.reverse(page);
+        } else {
+            page = rows.subList(0, Math.min(size, rows.size()));
+        }
+
+        boolean hasNext = !page.isEmpty() && (before != null || hasMore);
+        boolean hasPrev = !page.isEmpty() && (before != null ? hasMore : after != null);
+        return new Window<>(page, hasNext, hasPrev);
+    }
+
+    private CollectionModel<EntityModel<UserResponse>> toPageModel(Window<UserRecord> window, Long after, Long before,
+                                                                   PageLinks pageLinks) {
+        List<EntityModel<UserResponse>> users = window.page()
+                .stream()
+                .map(UserService::convertToResponse)
+                .map(response -> EntityModel.of(response,
+                        userLinkFactory.self(response.getId()),
+                        userLinkFactory.user(response.getId(), "update"),
+                        userLinkFactory.user(response.getId(), "delete")
+                ))
+                .collect(Collectors.toList());
+
+        CollectionModel<EntityModel<UserResponse>> result = CollectionModel.of(users,
+                pageLinks.link(after, before, IanaLinkRelations.SELF_VALUE),
+                userLinkFactory.users("create-user")
+        );
+
+        if (window.hasNext()) {
+            Long lastId = window.page().get(window.page().size() - 1).id();
+            result.add(pageLinks.link(lastId, null, IanaLinkRelations.NEXT_VALUE));
         }
+        if (window.hasPrev()) {
+            Long firstId = window.page().get(0).id();
+            result.add(pageLinks.link(null, firstId, IanaLinkRelations.PREV_VALUE));
+        }
+        return result;
+    }
+
+    private static UserRecordPage toRecordPage(Window<UserRecord> window) {
+        List<UserRecord> page = window.page();
+        return new UserRecordPage(page,
+                window.hasNext() ? page.get(page.size() - 1).id() : null,
+                window.hasPrev() ? page.get(0).id() : null);
+    }
+
+    private record Window<T>(List<T> page, boolean hasNext, boolean hasPrev) {}
+
+    // Строки окна: при before — перед курсором по убыванию id, иначе после after по возрастанию
+    @FunctionalInterface
+    private interface KeysetQuery<T> {
+        List<T> fetch(Long after, Long before, Limit limit);
+    }
+
+    @FunctionalInterface
+    private interface PageLinks {
+        Link link(Long after, Long before, String rel);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Long> toCounts(List<Object[]> rows) {
+        Map<K, Long> counts = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            counts.put((K) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException ex) {
+        if (ex.getCause() instanceof ConstraintViolationException violation) {
+            String constraintName = violation.getConstraintName();
+            return constraintName != null
+                    && constraintName.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+        }
+        return false;
+    }
+
+    // Пакетная видимость — для UserMappingBenchmark
+    static UserResponse convertToResponse(UserRecord user) {
+        return new UserResponse(user.id(), user.name(), user.email(), user.age(), user.createdAt(), user.version());
+    }
+
+    private EntityModel<UserResponse> toModel(UserResponse response) {
+        Long id = response.getId();
+        return EntityModel.of(response,
+                userLinkFactory.self(id),
+                userLinkFactory.users("all-users"),
+                userLinkFactory.user(id, "update"),
+                userLinkFactory.user(id, "delete")
+        );
+    }
 
-        userRepository.deleteById(id);
+    private static UserRecord toRecord(User user) {
+        return new UserRecord(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(), user.getVersion());
     }
 
-    private UserResponse convertToResponse(User user) {
+    static UserResponse convertToResponse(User user) {
         UserResponse response = new UserResponse();
         response.setId(user.getId());
         response.setName(user.getName());
         response.setEmail(user.getEmail());
         response.setAge(user.getAge());
         response.setCreatedAt(user.getCreatedAt());
+        response.setVersion(user.getVersion());
         return response;
     }
 }
\ No newline at end of file
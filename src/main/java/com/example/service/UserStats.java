@@ -0,0 +1,362 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserStatsResponse;
+import com.example.dto.UserStatsResponse.AgeBucket;
+import com.example.dto.UserStatsResponse.DayCount;
+import com.example.dto.UserStatsResponse.DomainCount;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Статистика пользователей для дашбордов (app.users.stats.enabled) без запросов к БД на чтение:
+// счётчики LongAdder меняются по UserChangedEvent, чтение — сумма фиксированного числа счётчиков.
+// Чтобы обновление и удаление без предварительного SELECT вычитали прежние значения, для каждого
+// пользователя хранится упакованный в long снимок (группа возраста, день создания, домен).
+// Изменения мимо этого экземпляра (другие экземпляры, ручной SQL) исправляет периодическая сверка
+// с группировками в БД
+@Component
+@ConditionalOnProperty(name = "app.users.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class UserStats implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStats.class);
+
+    // Нижние границы групп возраста
+    private static final int[] AGE_BOUNDS = {0, 18, 25, 35, 45, 55, 65};
+    private static final String[] AGE_RANGES = {"0-17", "18-24", "25-34", "35-44", "45-54", "55-64", "65+"};
+    // Полос снимков: степень двойки, с запасом больше числа потоков, коммитящих одновременно
+    private static final int STRIPES = 64;
+    // Частые домены первыми, при равенстве — по алфавиту
+    private static final Comparator<DomainCount> MOST_FREQUENT_FIRST = Comparator.comparingLong(DomainCount::count)
+            .reversed()
+            .thenComparing(DomainCount::domain);
+
+    private final UserService userService;
+    private final Clock clock;
+    private final int days;
+    private final int topDomains;
+    private final Duration topDomainsRefresh;
+    private final Duration reconcileInterval;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] ageBuckets = new LongAdder[AGE_BOUNDS.length];
+    private final ConcurrentHashMap<Long, LongAdder> createdPerDay = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DomainCounter> domainsByName = new ConcurrentHashMap<>();
+    private final AtomicLong corrections = new AtomicLong();
+
+    // Снимки разложены по полосам по id: события об одном пользователе идут под блокировкой его полосы,
+    // о разных — почти всегда параллельно. Счётчики и домены обходятся без блокировок
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ConcurrentHashMap<Integer, DomainCounter> domainsById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextDomainId = new AtomicInteger();
+
+    private volatile TopDomains cachedTopDomains = new TopDomains(List.of(), 0);
+    private volatile LocalDateTime reconciledAt;
+    private volatile boolean running;
+    private ScheduledExecutorService reconciler;
+
+    @Autowired
+    public UserStats(UserService userService,
+                     @Value("${app.users.stats.days:30}") int days,
+                     @Value("${app.users.stats.top-domains:10}") int topDomains,
+                     @Value("${app.users.stats.top-domains-refresh:1s}") Duration topDomainsRefresh,
+                     @Value("${app.users.stats.reconcile-interval:10m}") Duration reconcileInterval) {
+        this(userService, Clock.systemDefaultZone(), days, topDomains, topDomainsRefresh, reconcileInterval);
+    }
+
+    UserStats(UserService userService, Clock clock, int days, int topDomains,
+              Duration topDomainsRefresh, Duration reconcileInterval) {
+        this.userService = userService;
+        this.clock = clock;
+        this.days = days;
+        this.topDomains = topDomains;
+        this.topDomainsRefresh = topDomainsRefresh;
+        this.reconcileInterval = reconcileInterval;
+        for (int i = 0; i < ageBuckets.length; i++) {
+            ageBuckets[i] = new LongAdder();
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public UserStatsResponse getStats() {
+        List<AgeBucket> ageHistogram = new ArrayList<>(AGE_RANGES.length);
+        for (int i = 0; i < AGE_RANGES.length; i++) {
+            ageHistogram.add(new AgeBucket(AGE_RANGES[i], ageBuckets[i].sum()));
+        }
+
+        LocalDate today = LocalDate.now(clock);
+        List<DayCount> perDay = new ArrayList<>(days);
+        for (LocalDate day = today.minusDays(days - 1); !day.isAfter(today); day = day.plusDays(1)) {
+            LongAdder created = createdPerDay.get(day.toEpochDay());
+            perDay.add(new DayCount(day, created == null ? 0 : created.sum()));
+        }
+
+        return new UserStatsResponse(total.sum(), ageHistogram, perDay, topDomains(), reconciledAt);
+    }
+
+    // После коммита: откатившаяся транзакция не должна попасть в счётчики
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        apply(event.id(), event.user());
+    }
+
+    // Сверка: счётчики приводятся к группировкам из БД. Изменения, закоммиченные между запросами
+    // и поправкой, могут дать расхождение на единицы — его уберёт следующая сверка
+    public void reconcile() {
+        UserAggregates aggregates = userService.aggregateUsers();
+
+        long adjusted = adjust(total, aggregates.total());
+        long[] ageCounts = new long[AGE_BOUNDS.length];
+        aggregates.byAge().forEach((age, count) -> {
+            int bucket = ageBucket(age);
+            if (bucket >= 0) {
+                ageCounts[bucket] += count;
+            }
+        });
+        for (int i = 0; i < ageBuckets.length; i++) {
+            adjusted += adjust(ageBuckets[i], ageCounts[i]);
+        }
+
+        Map<Long, Long> dayCounts = new HashMap<>();
+        aggregates.byCreatedDate().forEach((day, count) -> {
+            if (day != null) {
+                dayCounts.put(day.toEpochDay(), count);
+            }
+        });
+        for (Map.Entry<Long, LongAdder> day : createdPerDay.entrySet()) {
+            adjusted += adjust(day.getValue(), dayCounts.getOrDefault(day.getKey(), 0L));
+        }
+        for (Map.Entry<Long, Long> day : dayCounts.entrySet()) {
+            adjusted += adjust(createdPerDay.computeIfAbsent(day.getKey(), key -> new LongAdder()), day.getValue());
+        }
+
+        for (DomainCounter domain : domainsByName.values()) {
+            adjusted += adjust(domain.count, aggregates.byEmailDomain().getOrDefault(domain.domain, 0L));
+        }
+        for (Map.Entry<String, Long> domain : aggregates.byEmailDomain().entrySet()) {
+            if (domain.getKey() != null) {
+                adjusted += adjust(domainCounter(domain.getKey()).count, domain.getValue());
+            }
+        }
+
+        corrections.addAndGet(adjusted);
+        cachedTopDomains = new TopDomains(List.of(), 0);
+        reconciledAt = LocalDateTime.now(clock);
+        if (adjusted > 0) {
+            log.info("User stats reconciled with the database, {} counts corrected", adjusted);
+        }
+    }
+
+    @Override
+    public void start() {
+        long startedAt = System.nanoTime();
+        userService.exportUsers(user -> apply(user.id(), user));
+        reconciledAt = LocalDateTime.now(clock);
+        log.info("User stats loaded: {} users in {} ms", total.sum(), (System.nanoTime() - startedAt) / 1_000_000);
+
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reconcileInterval.toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcileSafely, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        reconciler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Загружается до старта веб-сервера (DEFAULT_PHASE - 2048), сверка останавливается до закрытия пула соединений
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // users.stats.reconcile.corrections — на сколько сверки суммарно поправили счётчики
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.stats.reconcile.corrections", corrections, AtomicLong::get)
+                .description("Total absolute adjustment applied to user stats counters by reconciliation")
+                .register(registry);
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            log.warn("User stats reconciliation failed, counters kept as is", ex);
+        }
+    }
+
+    // user == null — пользователь удалён. Повторное событие с тем же состоянием ничего не меняет
+    private void apply(Long id, UserRecord user) {
+        Stripe stripe = stripes[Long.hashCode(id) & (STRIPES - 1)];
+        LongLongMap snapshots = stripe.snapshots;
+        stripe.lock.lock();
+        try {
+            if (user == null) {
+                long previous = snapshots.remove(id);
+                if (previous >= 0) {
+                    count(previous, -1);
+                }
+                return;
+            }
+            long next = snapshot(user);
+            long previous = snapshots.get(id);
+            if (previous == next) {
+                return;
+            }
+            snapshots.put(id, next);
+            if (previous >= 0) {
+                count(previous, -1);
+            }
+            count(next, 1);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Снимок: номер домена << 32 | (день создания + 1) << 4 | (группа возраста + 1); 0 в поле — значения нет
+    private long snapshot(UserRecord user) {
+        long bucket = ageBucket(user.age()) + 1;
+        long day = user.createdAt() == null ? 0 : user.createdAt().toLocalDate().toEpochDay() + 1;
+        String domain = emailDomain(user.email());
+        long domainId = domain == null ? 0 : domainCounter(domain).id + 1;
+        return domainId << 32 | day << 4 | bucket;
+    }
+
+    private void count(long snapshot, int delta) {
+        total.add(delta);
+        int bucket = (int) (snapshot & 0xF) - 1;
+        if (bucket >= 0) {
+            ageBuckets[bucket].add(delta);
+        }
+        long day = (snapshot >>> 4 & 0xFFFFFFF) - 1;
+        if (day >= 0) {
+            createdPerDay.computeIfAbsent(day, key -> new LongAdder()).add(delta);
+        }
+        int domainId = (int) (snapshot >>> 32) - 1;
+        if (domainId >= 0) {
+            domainsById.get(domainId).count.add(delta);
+        }
+    }
+
+    // Номер домена попадает в domainsById раньше, чем в чей-либо снимок
+    private DomainCounter domainCounter(String domain) {
+        DomainCounter counter = domainsByName.get(domain);
+        if (counter != null) {
+            return counter;
+        }
+        return domainsByName.computeIfAbsent(domain, name -> {
+            DomainCounter created = new DomainCounter(nextDomainId.getAndIncrement(), name);
+            domainsById.put(created.id, created);
+            return created;
+        });
+    }
+
+    // Топ доменов — единственная часть, зависящая от числа доменов, поэтому пересчитывается не чаще topDomainsRefresh
+    private List<DomainCount> topDomains() {
+        TopDomains cached = cachedTopDomains;
+        long now = System.nanoTime();
+        if (cached.computedAt() != 0 && now - cached.computedAt() < topDomainsRefresh.toNanos()) {
+            return cached.domains();
+        }
+        PriorityQueue<DomainCount> top = new PriorityQueue<>(topDomains + 1, MOST_FREQUENT_FIRST.reversed());
+        for (DomainCounter counter : domainsByName.values()) {
+            long count = counter.count.sum();
+            if (count > 0) {
+                top.add(new DomainCount(counter.domain, count));
+                if (top.size() > topDomains) {
+                    top.poll();
+                }
+            }
+        }
+        List<DomainCount> domains = new ArrayList<>(top);
+        domains.sort(MOST_FREQUENT_FIRST);
+        cachedTopDomains = new TopDomains(List.copyOf(domains), Math.max(now, 1));
+        return cachedTopDomains.domains();
+    }
+
+    private static long adjust(LongAdder counter, long actual) {
+        long difference = actual - counter.sum();
+        counter.add(difference);
+        return Math.abs(difference);
+    }
+
+    private static int ageBucket(Integer age) {
+        if (age == null || age < 0) {
+            return -1;
+        }
+        int bucket = AGE_BOUNDS.length - 1;
+        while (age < AGE_BOUNDS[bucket]) {
+            bucket--;
+        }
+        return bucket;
+    }
+
+    private static String emailDomain(String email) {
+        int at = email == null ? -1 : email.indexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class DomainCounter {
+
+        private final int id;
+        private final String domain;
+        private final LongAdder count = new LongAdder();
+
+        private DomainCounter(int id, String domain) {
+            this.id = id;
+            this.domain = domain;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final Lock lock = new ReentrantLock();
+        private final LongLongMap snapshots = new LongLongMap(1024 / STRIPES);
+    }
+
+    private record TopDomains(List<DomainCount> domains, long computedAt) {}
+}
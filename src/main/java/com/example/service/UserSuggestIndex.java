@@ -0,0 +1,89 @@
+package com.example.service;
+
+import com.example.dto.UserSuggestion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+// Подсказки по имени и email из памяти (app.users.suggest.enabled): индекс заполняется выгрузкой
+// при старте и дальше следует за изменениями через UserChangedEvent. Видит только изменения,
+// прошедшие через этот экземпляр приложения
+@Component
+@ConditionalOnProperty(name = "app.users.suggest.enabled", havingValue = "true", matchIfMissing = true)
+public class UserSuggestIndex implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSuggestIndex.class);
+
+    private final UserService userService;
+    private final NgramIndex index = new NgramIndex();
+    private volatile boolean running;
+
+    public UserSuggestIndex(UserService userService) {
+        this.userService = userService;
+    }
+
+    public List<UserSuggestion> suggest(String query, int limit) {
+        if (NgramIndex.fold(query).length < NgramIndex.MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Query should contain at least " + NgramIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        return index.search(query, limit);
+    }
+
+    // Изменение применяется после коммита: откатившаяся транзакция не должна появиться в подсказках
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.DELETED) {
+            index.remove(event.id());
+        } else {
+            index.put(event.id(), event.user().name(), event.user().email());
+        }
+    }
+
+    @Override
+    public void start() {
+        long startedAt = System.nanoTime();
+        userService.exportUsers(user -> index.put(user.id(), user.name(), user.email()));
+        index.trimToSize();
+        running = true;
+        log.info("Suggest index loaded: {} users, ~{} MB in {} ms", index.size(),
+                index.estimatedBytes() >> 20, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Загружается до старта веб-сервера (DEFAULT_PHASE - 2048): первые запросы уже видят полный индекс
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // users.suggest.index.size — пользователей в индексе, users.suggest.index.bytes — оценка занятой памяти
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.suggest.index.size", index, NgramIndex::size)
+                .description("Users in the in-memory suggest index")
+                .register(registry);
+        Gauge.builder("users.suggest.index.bytes", index, NgramIndex::estimatedBytes)
+                .description("Estimated heap used by the suggest index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,3 @@
+-- Префиксный поиск без учёта регистра: lower(name) like 'abc%'.
+-- varchar_pattern_ops нужен, чтобы LIKE использовал индекс при любой collation базы
+create index if not exists idx_users_name_lower on users (lower(name) varchar_pattern_ops);
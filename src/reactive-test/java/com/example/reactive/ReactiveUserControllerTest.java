@@ -0,0 +1,179 @@
+package com.example.reactive;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Реактивный стек на in-memory H2 из reactive-h2.yml; src/reactive-test подключает только профиль reactive
+@SpringBootTest(classes = ReactiveUserApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.config.name=reactive", "spring.main.web-application-type=reactive"})
+@ActiveProfiles({ReactiveUserApplication.PROFILE, "h2"})
+@AutoConfigureWebTestClient
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+    }
+
+    @Test
+    void createUser_ShouldReturnCreatedWithETag() {
+        // When & Then
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaTypes.HAL_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"email\":\"john@example.com\",\"age\":30}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("John Doe")
+                .jsonPath("$._links.self.href").value(containsString("/api/users/"));
+    }
+
+    @Test
+    void createUser_ShouldReturnBadRequest_WhenRequestIsInvalid() {
+        // When & Then
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"\",\"email\":\"not-an-email\",\"age\":30}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).value(containsString("Email should be valid"));
+    }
+
+    @Test
+    void createUser_ShouldReturnBadRequest_WhenEmailAlreadyExists() {
+        // Given
+        createUser("John Doe", "john@example.com");
+
+        // When & Then
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Johnny\",\"email\":\"john@example.com\",\"age\":31}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("User with email john@example.com already exists");
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnKeysetLinks() {
+        // Given
+        createUser("User 1", "user1@example.com");
+        long second = createUser("User 2", "user2@example.com");
+        long third = createUser("User 3", "user3@example.com");
+
+        // When & Then
+        webTestClient.get().uri("/api/users?size=2")
+                .accept(MediaTypes.HAL_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userResponseList.length()").isEqualTo(2)
+                .jsonPath("$._links.next.href").value(endsWith("?after=" + second + "&size=2"))
+                .jsonPath("$._links.prev").doesNotExist();
+        webTestClient.get().uri("/api/users?size=2&after=" + second)
+                .accept(MediaTypes.HAL_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userResponseList[0].id").isEqualTo(third)
+                .jsonPath("$._links.next").doesNotExist()
+                .jsonPath("$._links.prev.href").value(endsWith("?before=" + third + "&size=2"));
+    }
+
+    @Test
+    void getUserById_ShouldReturnNotModified_WhenETagMatches() {
+        // Given
+        long id = createUser("John Doe", "john@example.com");
+
+        // When & Then
+        webTestClient.get().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void updateUser_ShouldReturnPreconditionFailed_WhenVersionIsStale() {
+        // Given
+        long id = createUser("John Doe", "john@example.com");
+
+        // When & Then
+        webTestClient.put().uri("/api/users/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .bodyValue("{\"name\":\"John Smith\",\"email\":\"john@example.com\",\"age\":31}")
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+    }
+
+    @Test
+    void updateUser_ShouldReturnNotFound_WhenUserIsMissingDespiteIfMatch() {
+        // When & Then
+        webTestClient.put().uri("/api/users/{id}", 999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue("{\"name\":\"John Smith\",\"email\":\"john@example.com\",\"age\":31}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void exportUsers_ShouldStreamNdjson() {
+        // Given
+        createUser("User 1", "user1@example.com");
+        createUser("User 2", "user2@example.com");
+
+        // When
+        List<UserRecord> users = webTestClient.get().uri("/api/users/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserRecord.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(List.of("user1@example.com", "user2@example.com"), users.stream().map(UserRecord::email).toList());
+    }
+
+    private long createUser(String name, String email) {
+        UserResponse user = webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaTypes.HAL_JSON)
+                .bodyValue("{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"age\":30}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(UserResponse.class).returnResult().getResponseBody();
+        return user.getId();
+    }
+}
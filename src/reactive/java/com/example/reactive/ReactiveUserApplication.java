@@ -0,0 +1,31 @@
+package com.example.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.config.EnableHypermediaSupport.HypermediaType;
+import org.springframework.hateoas.support.WebStack;
+
+// Тот же /api/users на WebFlux + R2DBC. Настройки читаются из reactive.yml (spring.config.name),
+// а не из application.yml сервлетного приложения. Все бины — под профилем reactive: иначе
+// UserServiceApplication, сканирующий com.example, подхватил бы их в сборке -Preactive
+@SpringBootApplication
+@Profile(ReactiveUserApplication.PROFILE)
+@EnableHypermediaSupport(type = HypermediaType.HAL, stacks = WebStack.WEBFLUX)
+public class ReactiveUserApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveUserApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .properties("spring.config.name=reactive");
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.reactive;
+
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
+import com.example.service.UserETags;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Контракт совпадает с UserController: те же пути, параметры, коды ответов, ETag и HAL-ссылки
+@RestController
+@RequestMapping("/api/users")
+@Profile(ReactiveUserApplication.PROFILE)
+@Tag(name = "User Management (reactive)", description = "APIs for managing users on WebFlux and R2DBC")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @Value("${app.users.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.users.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.users.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @Operation(summary = "Create a new user", description = "Creates a new user with the provided details")
+    @PostMapping
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> createUser(
+            @Parameter(description = "User data to create", required = true)
+            @Valid @RequestBody UserRequest userRequest) {
+
+        return userService.createUser(userRequest)
+                .map(user -> withETag(ResponseEntity.status(HttpStatus.CREATED), user));
+    }
+
+    @Operation(summary = "Create users in bulk",
+            description = "Creates a list of users in one transaction and reports the outcome of every item")
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<UserBatchResponse>> createUsers(
+            @Parameter(description = "Users to create", required = true)
+            @RequestBody List<UserRequest> userRequests) {
+
+        if (userRequests.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Batch should contain at least one user"));
+        }
+        if (userRequests.size() > maxBatchSize) {
+            return Mono.error(new IllegalArgumentException("Batch size should not exceed " + maxBatchSize));
+        }
+        return userService.createUsers(userRequests).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Get all users",
+            description = "Retrieves a page of users ordered by ID using keyset (cursor) pagination")
+    @GetMapping
+    public Mono<ResponseEntity<CollectionModel<EntityModel<UserResponse>>>> getAllUsers(
+            @Parameter(description = "Return users with ID greater than this cursor", example = "100")
+            @RequestParam(required = false) Long after,
+
+            @Parameter(description = "Return users with ID less than this cursor", example = "200")
+            @RequestParam(required = false) Long before,
+
+            @Parameter(description = "Page size (capped by the server-side maximum)", example = "20")
+            @RequestParam(required = false) Integer size,
+
+            @Parameter(description = "ETag of a previously fetched page")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        if (after != null && before != null) {
+            return Mono.error(new IllegalArgumentException("Parameters 'after' and 'before' cannot be used together"));
+        }
+        if (size != null && size <= 0) {
+            return Mono.error(new IllegalArgumentException("Page size should be positive"));
+        }
+
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return userService.getAllUsers(after, before, pageSize).map(users -> {
+            String eTag = UserETags.ofPage(users);
+            if (ifNoneMatch != null && UserETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(users);
+        });
+    }
+
+    // Flux кодируется построчно в NDJSON; следующая порция строк читается из БД,
+    // только когда сеть приняла предыдущую (backpressure до драйвера R2DBC)
+    @Operation(summary = "Export all users", description = "Streams all users ordered by ID as newline-delimited JSON")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserRecord> exportUsers() {
+        return userService.exportUsers();
+    }
+
+    @Operation(summary = "Get user by ID", description = "Retrieves a specific user by their ID")
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> getUserById(
+            @Parameter(description = "ID of the user to retrieve", required = true, example = "1")
+            @PathVariable Long id,
+
+            @Parameter(description = "ETag of a previously fetched representation", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        // Версию проверяем до чтения всей строки и сборки EntityModel
+        if (ifNoneMatch != null) {
+            return userService.getUserVersion(id).flatMap(version -> {
+                String eTag = UserETags.ofUser(version);
+                if (UserETags.matches(ifNoneMatch, eTag)) {
+                    return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+                }
+                return userService.getUserById(id).map(user -> withETag(ResponseEntity.ok(), user));
+            });
+        }
+        return userService.getUserById(id).map(user -> withETag(ResponseEntity.ok(), user));
+    }
+
+    @Operation(summary = "Update user", description = "Updates an existing user's information")
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> updateUser(
+            @Parameter(description = "ID of the user to update", required = true, example = "1")
+            @PathVariable Long id,
+
+            @Parameter(description = "Updated user data", required = true)
+            @Valid @RequestBody UserRequest userRequest,
+
+            @Parameter(description = "Expected version (ETag) of the user", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return Mono.defer(() -> userService.updateUser(id, userRequest, parseIfMatch(ifMatch)))
+                .map(user -> withETag(ResponseEntity.ok(), user));
+    }
+
+    @Operation(summary = "Partially update user",
+            description = "Updates only the supplied fields with a single conditional UPDATE")
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<EntityModel<UserResponse>>> patchUser(
+            @Parameter(description = "ID of the user to update", required = true, example = "1")
+            @PathVariable Long id,
+
+            @Parameter(description = "Fields to change, omitted fields stay unchanged", required = true)
+            @Valid @RequestBody UserPatchRequest patchRequest,
+
+            @Parameter(description = "Expected version (ETag) of the user", example = "\"0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        return Mono.defer(() -> userService.patchUser(id, patchRequest, parseIfMatch(ifMatch)))
+                .map(user -> withETag(ResponseEntity.ok(), user));
+    }
+
+    @Operation(summary = "Delete user", description = "Deletes a user by their ID")
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(
+            @Parameter(description = "ID of the user to delete", required = true, example = "1")
+            @PathVariable Long id) {
+
+        return userService.deleteUser(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @Operation(summary = "Delete users in bulk",
+            description = "Deletes all users with the given IDs in a single statement, unknown IDs are ignored")
+    @DeleteMapping
+    public Mono<ResponseEntity<UserBulkDeleteResponse>> deleteUsers(
+            @Parameter(description = "Comma-separated IDs of the users to delete", required = true, example = "1,2,3")
+            @RequestParam(required = false) List<Long> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one id should be provided"));
+        }
+        if (ids.size() > maxBatchSize) {
+            return Mono.error(new IllegalArgumentException("Number of ids should not exceed " + maxBatchSize));
+        }
+        return userService.deleteUsers(ids).map(ResponseEntity::ok);
+    }
+
+    // ETag пользователя — его версия: "3"
+    private static ResponseEntity<EntityModel<UserResponse>> withETag(ResponseEntity.BodyBuilder builder,
+                                                                     EntityModel<UserResponse> userResponse) {
+        UserResponse content = userResponse.getContent();
+        if (content != null && content.getVersion() != null) {
+            builder.eTag(UserETags.ofUser(content.getVersion()));
+        }
+        return builder.body(userResponse);
+    }
+
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("\"") && value.endsWith("\"") && value.length() > 1) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<String> handleVersionConflictException(VersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(UserETags.ofUser(ex.getCurrentVersion()))
+                .body(ex.getMessage());
+    }
+
+    // Нарушения правил UserRequest/UserPatchRequest — те же сообщения, что и в пакетном создании
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<String> handleValidationException(WebExchangeBindException ex) {
+        String message = ex.getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest().body(message);
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<String> handleServerWebInputException(ServerWebInputException ex) {
+        return ResponseEntity.badRequest().body(ex.getReason());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @io.swagger.v3.oas.annotations.Hidden
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleGenericException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("An error occurred: " + ex.getMessage());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+// Реактивный аналог UserLinkFactory: базовый URI /api/users берётся из текущего ServerWebExchange
+// (контекст Reactor) один раз на запрос, дальше ссылки собираются конкатенацией
+@Component
+@Profile(ReactiveUserApplication.PROFILE)
+public class ReactiveUserLinks {
+
+    public Mono<Links> forCurrentRequest() {
+        return linkTo(methodOn(ReactiveUserController.class).getAllUsers(null, null, null, null))
+                .withSelfRel()
+                .toMono()
+                .map(link -> new Links(link.expand().getHref()));
+    }
+
+    public record Links(String usersUri) {
+
+        public Link self(Long id) {
+            return user(id, IanaLinkRelations.SELF_VALUE);
+        }
+
+        public Link user(Long id, String rel) {
+            return Link.of(usersUri + "/" + id, rel);
+        }
+
+        public Link users(String rel) {
+            return Link.of(usersUri, rel);
+        }
+
+        public Link usersPage(Long after, Long before, int size, String rel) {
+            StringBuilder href = new StringBuilder(usersUri).append('?');
+            if (after != null) {
+                href.append("after=").append(after).append('&');
+            }
+            if (before != null) {
+                href.append("before=").append(before).append('&');
+            }
+            href.append("size=").append(size);
+            return Link.of(href.toString(), rel);
+        }
+    }
+}
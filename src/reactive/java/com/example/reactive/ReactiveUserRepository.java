@@ -0,0 +1,168 @@
+package com.example.reactive;
+
+import com.example.dto.UserRecord;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Та же таблица users, что у JPA-сущности User; запросы — прямой SQL через DatabaseClient
+@Repository
+@Profile(ReactiveUserApplication.PROFILE)
+public class ReactiveUserRepository {
+
+    private static final String SELECT_RECORD = "select id, name, email, age, created_at, version from users";
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    // Как allocationSize у User: последовательность шагает на 50, id раздаются из полученного блока
+    private static final long ID_ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(new IdBlock(0, 0));
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<UserRecord> findRecordById(Long id) {
+        return databaseClient.sql(SELECT_RECORD + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toRecord)
+                .one();
+    }
+
+    public Mono<Long> findVersionById(Long id) {
+        return databaseClient.sql("select version from users where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Flux<UserRecord> findByIdGreaterThan(long after, int limit) {
+        return databaseClient.sql(SELECT_RECORD + " where id > :after order by id asc limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toRecord)
+                .all();
+    }
+
+    public Flux<UserRecord> findByIdLessThan(long before, int limit) {
+        return databaseClient.sql(SELECT_RECORD + " where id < :before order by id desc limit :limit")
+                .bind("before", before)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toRecord)
+                .all();
+    }
+
+    // Строки запрашиваются у драйвера по мере спроса подписчика, порциями fetch size
+    public Flux<UserRecord> streamAllRecordsOrderById() {
+        return databaseClient.sql(SELECT_RECORD + " order by id")
+                .filter(statement -> statement.fetchSize(EXPORT_FETCH_SIZE))
+                .map(ReactiveUserRepository::toRecord)
+                .all();
+    }
+
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        return databaseClient.sql("select email from users where email in (:emails)")
+                .bind("emails", emails)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    public Mono<UserRecord> insert(String name, String email, Integer age) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return nextId().flatMap(id -> databaseClient.sql("insert into users (id, name, email, age, created_at, version) "
+                        + "values (:id, :name, :email, :age, :createdAt, 0)")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("age", age)
+                .bind("createdAt", createdAt)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(new UserRecord(id, name, email, age, createdAt, 0L)));
+    }
+
+    // Совместимо с pooled-оптимизатором Hibernate: значение последовательности — верхняя граница блока,
+    // поэтому сервлетное и реактивное приложения на одной БД не выдают одинаковых id
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = idBlock.get().next();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql("select nextval('users_seq')")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        IdBlock block = new IdBlock(Math.max(1, hi - ID_ALLOCATION_SIZE + 1), hi);
+                        long first = block.next();
+                        idBlock.set(block);
+                        return first;
+                    });
+        });
+    }
+
+    // Возвращает число обновлённых строк; expectedVersion == null — без проверки версии
+    public Mono<Long> update(Long id, Long expectedVersion, String name, String email, Integer age) {
+        String sql = "update users set name = coalesce(:name, name), email = coalesce(:email, email), "
+                + "age = coalesce(:age, age), version = version + 1 where id = :id"
+                + (expectedVersion != null ? " and version = :version" : "");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("id", id);
+        spec = name != null ? spec.bind("name", name) : spec.bindNull("name", String.class);
+        spec = email != null ? spec.bind("email", email) : spec.bindNull("email", String.class);
+        spec = age != null ? spec.bind("age", age) : spec.bindNull("age", Integer.class);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from users where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByIds(Collection<Long> ids) {
+        return databaseClient.sql("delete from users where id in (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static final class IdBlock {
+
+        private final AtomicLong next;
+        private final long hi;
+
+        IdBlock(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+
+        // 0 — блок исчерпан
+        long next() {
+            long id = next.getAndIncrement();
+            return id > 0 && id <= hi ? id : 0;
+        }
+    }
+
+    private static UserRecord toRecord(Readable row) {
+        return new UserRecord(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("age", Integer.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.reactive;
+
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.entity.User;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Реактивный аналог UserService с теми же правилами и сообщениями об ошибках
+@Service
+@Profile(ReactiveUserApplication.PROFILE)
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveUserLinks userLinks;
+    private final Validator validator;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveUserService(ReactiveUserRepository userRepository,
+                               ReactiveUserLinks userLinks,
+                               Validator validator,
+                               TransactionalOperator transactionalOperator) {
+        this.userRepository = userRepository;
+        this.userLinks = userLinks;
+        this.validator = validator;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<EntityModel<UserResponse>> createUser(UserRequest userRequest) {
+        return userRepository.insert(userRequest.getName(), userRequest.getEmail(), userRequest.getAge())
+                .onErrorMap(DataIntegrityViolationException.class, ex -> translateEmailConflict(ex, userRequest.getEmail()))
+                .zipWith(userLinks.forCurrentRequest(), (user, links) -> EntityModel.of(convertToResponse(user),
+                        links.self(user.id()),
+                        links.users("all-users")));
+    }
+
+    public Mono<UserBatchResponse> createUsers(List<UserRequest> userRequests) {
+        UserBatchItemResult[] results = new UserBatchItemResult[userRequests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < userRequests.size(); i++) {
+            UserRequest userRequest = userRequests.get(i);
+            if (userRequest == null) {
+                results[i] = UserBatchItemResult.invalid(i, null, "User data is required");
+                continue;
+            }
+
+            Set<ConstraintViolation<UserRequest>> violations = validator.validate(userRequest);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = UserBatchItemResult.invalid(i, userRequest.getEmail(), message);
+            } else if (candidates.putIfAbsent(userRequest.getEmail(), i) != null) {
+                results[i] = UserBatchItemResult.duplicate(i, userRequest.getEmail(),
+                        "Email " + userRequest.getEmail() + " is duplicated within the batch");
+            }
+        }
+
+        Mono<Set<String>> existingEmails = candidates.isEmpty()
+                ? Mono.just(Set.of())
+                : userRepository.findExistingEmails(candidates.keySet()).collect(Collectors.toCollection(HashSet::new));
+
+        // Вставки по одной, но в одной транзакции, как saveAll в сервлетной версии
+        return existingEmails
+                .flatMapMany(existing -> Flux.fromIterable(candidates.entrySet())
+                        .concatMap(candidate -> {
+                            String email = candidate.getKey();
+                            int index = candidate.getValue();
+                            if (existing.contains(email)) {
+                                results[index] = UserBatchItemResult.duplicate(index, email,
+                                        "User with email " + email + " already exists");
+                                return Mono.empty();
+                            }
+                            UserRequest userRequest = userRequests.get(index);
+                            return userRepository.insert(userRequest.getName(), email, userRequest.getAge())
+                                    .doOnNext(user -> results[index] = UserBatchItemResult.created(index, user.id(), email));
+                        }))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, ex -> isEmailConflict(ex)
+                        ? new IllegalArgumentException("Some emails of the batch were registered concurrently, retry the batch")
+                        : ex)
+                .then(Mono.fromSupplier(() -> new UserBatchResponse(Arrays.asList(results))));
+    }
+
+    public Mono<CollectionModel<EntityModel<UserResponse>>> getAllUsers(Long after, Long before, int size) {
+        return fetchWindow(after, before, size).zipWith(userLinks.forCurrentRequest(), (window, links) -> {
+            List<EntityModel<UserResponse>> users = window.page()
+                    .stream()
+                    .map(ReactiveUserService::convertToResponse)
+                    .map(response -> EntityModel.of(response,
+                            links.self(response.getId()),
+                            links.user(response.getId(), "update"),
+                            links.user(response.getId(), "delete")
+                    ))
+                    .collect(Collectors.toList());
+
+            CollectionModel<EntityModel<UserResponse>> result = CollectionModel.of(users,
+                    links.usersPage(after, before, size, IanaLinkRelations.SELF_VALUE),
+                    links.users("create-user")
+            );
+
+            if (window.hasNext()) {
+                Long lastId = window.page().get(window.page().size() - 1).id();
+                result.add(links.usersPage(lastId, null, size, IanaLinkRelations.NEXT_VALUE));
+            }
+            if (window.hasPrev()) {
+                Long firstId = window.page().get(0).id();
+                result.add(links.usersPage(null, firstId, size, IanaLinkRelations.PREV_VALUE));
+            }
+            return result;
+        });
+    }
+
+    public Flux<UserRecord> exportUsers() {
+        return userRepository.streamAllRecordsOrderById();
+    }
+
+    public Mono<EntityModel<UserResponse>> getUserById(Long id) {
+        return userRepository.findRecordById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(this::toModel);
+    }
+
+    public Mono<Long> getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    public Mono<EntityModel<UserResponse>> updateUser(Long id, UserRequest userRequest, Long expectedVersion) {
+        return update(id, expectedVersion, userRequest.getName(), userRequest.getEmail(), userRequest.getAge());
+    }
+
+    public Mono<EntityModel<UserResponse>> patchUser(Long id, UserPatchRequest patchRequest, Long expectedVersion) {
+        if (patchRequest.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one field should be provided"));
+        }
+        return update(id, expectedVersion, patchRequest.getName(), patchRequest.getEmail(), patchRequest.getAge());
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(new UserNotFoundException(id)) : Mono.empty());
+    }
+
+    public Mono<UserBulkDeleteResponse> deleteUsers(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        return userRepository.deleteByIds(uniqueIds)
+                .map(deleted -> new UserBulkDeleteResponse(uniqueIds.size(), deleted.intValue()));
+    }
+
+    // Один условный UPDATE; если ни одна строка не обновлена — пользователя нет или версия устарела
+    private Mono<EntityModel<UserResponse>> update(Long id, Long expectedVersion, String name, String email, Integer age) {
+        return userRepository.update(id, expectedVersion, name, email, age)
+                .onErrorMap(DataIntegrityViolationException.class, ex -> translateEmailConflict(ex, email))
+                .flatMap(updated -> updated > 0
+                        ? userRepository.findRecordById(id)
+                        : getUserVersion(id).flatMap(currentVersion ->
+                                Mono.error(new VersionConflictException(id, expectedVersion, currentVersion))))
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(this::toModel);
+    }
+
+    // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+    private Mono<Window> fetchWindow(Long after, Long before, int size) {
+        Flux<UserRecord> rows = before != null
+                ? userRepository.findByIdLessThan(before, size + 1)
+                : userRepository.findByIdGreaterThan(after != null ? after : 0L, size + 1);
+
+        return rows.collectList().map(list -> {
+            boolean hasMore = list.size() > size;
+            List<UserRecord> page = new ArrayList<>(list.subList(0, Math.min(size, list.size())));
+            if (before != null) {
+                Collections.reverse(page);
+            }
+            boolean hasNext = !page.isEmpty() && (before != null || hasMore);
+            boolean hasPrev = !page.isEmpty() && (before != null ? hasMore : after != null);
+            return new Window(page, hasNext, hasPrev);
+        });
+    }
+
+    private record Window(List<UserRecord> page, boolean hasNext, boolean hasPrev) {}
+
+    private Mono<EntityModel<UserResponse>> toModel(UserRecord user) {
+        Long id = user.id();
+        return userLinks.forCurrentRequest().map(links -> EntityModel.of(convertToResponse(user),
+                links.self(id),
+                links.users("all-users"),
+                links.user(id, "update"),
+                links.user(id, "delete")
+        ));
+    }
+
+    private static RuntimeException translateEmailConflict(DataIntegrityViolationException ex, String email) {
+        if (isEmailConflict(ex)) {
+            return new IllegalArgumentException("User with email " + email + " already exists");
+        }
+        return ex;
+    }
+
+    // Драйверы R2DBC не отдают имя ограничения отдельно, оно есть только в тексте ошибки
+    private static boolean isEmailConflict(DataIntegrityViolationException ex) {
+        String message = ex.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+    }
+
+    private static UserResponse convertToResponse(UserRecord user) {
+        return new UserResponse(user.id(), user.name(), user.email(), user.age(), user.createdAt(), user.version());
+    }
+}
@@ -0,0 +1,11 @@
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id         bigint       not null primary key,
+    name       varchar(100) not null,
+    email      varchar(150) not null,
+    age        integer,
+    created_at timestamp    not null,
+    version    bigint default 0 not null,
+    constraint uk_users_email unique (email)
+);
@@ -0,0 +1,130 @@
+package com.example.config;
+
+import com.example.dto.UserRequest;
+import com.example.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Две H2 в памяти: основная (схему создаёт Hibernate) и реплика, в которую репликацию заменяет копия схемы
+// и свои строки — по ним видно, откуда прочитан ответ. Вторая реплика недоступна
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.connection-timeout=500",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.replicas[0].url=" + DataSourceRoutingIntegrationTest.REPLICA_URL,
+        "app.datasource.routing.replicas[1].url=jdbc:h2:tcp://localhost:1/unreachable",
+        // Индекс подсказок и статистика читают всех пользователей при старте, до копирования схемы в реплику
+        "app.users.suggest.enabled=false",
+        "app.users.stats.enabled=false"
+})
+@AutoConfigureMockMvc
+class DataSourceRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceRouter dataSourceRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        // Вне транзакции JdbcTemplate получает соединение основной БД
+        jdbcTemplate.update("DELETE FROM users");
+        replica.execute("DROP ALL OBJECTS");
+        jdbcTemplate.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+        replica.update("INSERT INTO users (id, name, email, age, created_at, version) VALUES (1000000, ?, ?, ?, ?, 0)",
+                "Replica Only", "replica@example.com", 40, LocalDateTime.now());
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldReadReplica_WhileWritesGoToPrimary() {
+        // Given
+        userService.createUser(new UserRequest("John Doe", "john@example.com", 30));
+
+        // When
+        var page = userService.getUserRecords(null, null, 20);
+
+        // Then
+        assertEquals(1, page.users().size());
+        assertEquals("Replica Only", page.users().get(0).name());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE name = 'John Doe'", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT count(*) FROM users WHERE name = 'John Doe'", Integer.class));
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldSkipUnreachableReplica() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertEquals("Replica Only", userService.getUserRecords(null, null, 20).users().get(0).name());
+        }
+
+        // Then
+        assertEquals(1, dataSourceRouter.healthyReplicas());
+        assertEquals(0, meterRegistry.get("datasource.routing.replica.healthy").tag("pool", "replica-2").gauge().value());
+        assertEquals(1, meterRegistry.get("datasource.routing.replica.healthy").tag("pool", "replica-1").gauge().value());
+        assertTrue(meterRegistry.get("datasource.routing.connections").tag("pool", "replica-1").functionCounter().count() >= 4);
+    }
+
+    @Test
+    void readYourWrites_ShouldPinWritingClientToPrimary() throws Exception {
+        // Given
+        Cookie pin = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"John Doe\",\"email\":\"john@example.com\",\"age\":30}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().maxAge(ReadYourWritesFilter.COOKIE_NAME, 5))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        // When & Then: писавший клиент видит свою запись, остальные пока читают реплику
+        mockMvc.perform(get("/api/users?view=compact").cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("John Doe")));
+        mockMvc.perform(get("/api/users?view=compact"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE_NAME))
+                .andExpect(jsonPath("$[*].name", contains("Replica Only")));
+    }
+
+    @Test
+    void getUserById_ShouldFillCacheFromPrimary() {
+        // Given: на реплике пользователя ещё нет
+        Long id = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+
+        // When & Then
+        assertEquals("John Doe", userService.getUserById(id).getContent().getName());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountFilter filter = new QueryCountFilter(registry);
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    @Test
+    void doFilter_ShouldRecordStatementsPerRequest_TaggedWithRoutePattern() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/42");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}");
+                queryCounter.inspect("select 1");
+                queryCounter.inspect("select 2");
+            }
+        });
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then: id из пути не попадает в теги
+        DistributionSummary summary = registry.get(QueryCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/api/users/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    @Test
+    void inspect_ShouldNotCount_OutsideOfRequest() {
+        // When
+        queryCounter.inspect("select 1");
+
+        // Then
+        assertEquals(0, QueryCounter.stop());
+    }
+}
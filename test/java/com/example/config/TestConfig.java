@@ -8,6 +8,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -15,8 +18,10 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.hamcrest.Matchers.contains;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,7 +44,7 @@ class UserControllerTest {
         UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
 
-        when(userService.createUser(any(UserRequest.class))).thenReturn(userResponse);
+        when(userService.createUser(any(UserRequest.class))).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(post("/api/users")
@@ -76,16 +81,16 @@ class UserControllerTest {
                 new UserResponse(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now())
         );
 
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getAllUsers(null, null, 20))
+                .thenReturn(CollectionModel.of(users.stream().map(EntityModel::of).toList()));
 
         // When & Then
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[1].id").value(2L));
+                .andExpect(content().contentType(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._embedded.userResponseList[*].id", contains(1, 2)));
 
-        verify(userService).getAllUsers();
+        verify(userService).getAllUsers(null, null, 20);
     }
 
     @Test
@@ -93,7 +98,7 @@ class UserControllerTest {
         // Given
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
 
-        when(userService.getUserById(1L)).thenReturn(userResponse);
+        when(userService.getUserById(1L)).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(get("/api/users/1"))
@@ -110,7 +115,7 @@ class UserControllerTest {
         UserRequest userRequest = new UserRequest("John Updated", "john.updated@example.com", 35);
         UserResponse userResponse = new UserResponse(1L, "John Updated", "john.updated@example.com", 35, LocalDateTime.now());
 
-        when(userService.updateUser(eq(1L), any(UserRequest.class))).thenReturn(userResponse);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), isNull())).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -122,7 +127,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("john.updated@example.com"))
                 .andExpect(jsonPath("$.age").value(35));
 
-        verify(userService).updateUser(eq(1L), any(UserRequest.class));
+        verify(userService).updateUser(eq(1L), any(UserRequest.class), isNull());
     }
 
     @Test
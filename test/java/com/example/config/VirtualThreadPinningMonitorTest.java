@@ -0,0 +1,48 @@
+package com.example.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void start_ShouldReportVirtualThreadBlockedInsideSynchronized() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), registry);
+        monitor.start();
+
+        try {
+            // When: sleep внутри synchronized не отпускает несущий поток
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleepQuietly(50);
+                }
+            }).join();
+
+            // Then: JFR отдаёт события в поток с задержкой до секунды
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (registry.get("jvm.threads.virtual.pinned").timer().count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, registry.get("jvm.threads.virtual.pinned").timer().count());
+        } finally {
+            monitor.stop();
+        }
+        assertFalse(monitor.isRunning());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.controller;
 
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.service.UserBulkService;
+import com.example.service.UserImportService;
 import com.example.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -35,14 +37,20 @@ class UserControllerHateoasTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserBulkService userBulkService;
+
     @Test
     void getUserById_ShouldIncludeHateoasLinks() throws Exception {
         // Given
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
         EntityModel<UserResponse> entityModel = EntityModel.of(userResponse);
-        entityModel.add(linkTo(methodOn(UserController.class).getUserById(1L)).withSelfRel());
-        entityModel.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("allUsers"));
-        entityModel.add(linkTo(methodOn(UserController.class).updateUser(1L, null)).withRel("updateUser"));
+        entityModel.add(linkTo(methodOn(UserController.class).getUserById(1L, null, null)).withSelfRel());
+        entityModel.add(linkTo(methodOn(UserController.class).getAllUsers(null, null, null, null, null, null)).withRel("allUsers"));
+        entityModel.add(linkTo(methodOn(UserController.class).updateUser(1L, null, null)).withRel("updateUser"));
         entityModel.add(linkTo(methodOn(UserController.class).deleteUser(1L)).withRel("deleteUser"));
 
         when(userService.getUserById(1L)).thenReturn(entityModel);
@@ -71,8 +79,8 @@ class UserControllerHateoasTest {
 
         List<EntityModel<UserResponse>> users = Arrays.asList(entityModel1, entityModel2);
 
-        when(userService.getAllUsers()).thenReturn(org.springframework.hateoas.CollectionModel.of(users,
-                linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel(),
+        when(userService.getAllUsers(null, null, 20)).thenReturn(org.springframework.hateoas.CollectionModel.of(users,
+                linkTo(methodOn(UserController.class).getAllUsers(null, null, null, null, null, null)).withSelfRel(),
                 linkTo(methodOn(UserController.class).createUser(null)).withRel("createUser")));
 
         // When & Then
@@ -92,8 +100,8 @@ class UserControllerHateoasTest {
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
 
         EntityModel<UserResponse> entityModel = EntityModel.of(userResponse);
-        entityModel.add(linkTo(methodOn(UserController.class).getUserById(1L)).withSelfRel());
-        entityModel.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("allUsers"));
+        entityModel.add(linkTo(methodOn(UserController.class).getUserById(1L, null, null)).withSelfRel());
+        entityModel.add(linkTo(methodOn(UserController.class).getAllUsers(null, null, null, null, null, null)).withRel("allUsers"));
 
         when(userService.createUser(any(UserRequest.class))).thenReturn(entityModel);
 
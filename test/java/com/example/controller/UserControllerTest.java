@@ -1,22 +1,62 @@
 package com.example.controller;
 
+import com.example.config.UserBinaryHttpMessageConverter;
+import com.example.config.UserProtobufCodec;
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserBulkFilter;
+import com.example.dto.UserBulkOperationResponse;
+import com.example.dto.UserBulkUpdateRequest;
+import com.example.dto.UserImportResponse;
+import com.example.dto.UserPagePayload;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserPayload;
+import com.example.dto.UserRecord;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.dto.UserSearchCriteria;
+import com.example.dto.UserStatsResponse;
+import com.example.dto.UserSuggestion;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
+import com.example.service.UserBulkService;
+import com.example.service.UserETags;
+import com.example.service.UserImportService;
+import com.example.service.UserRecordPage;
 import com.example.service.UserService;
+import com.example.service.UserStats;
+import com.example.service.UserSuggestIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,13 +73,25 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserSuggestIndex userSuggestIndex;
+
+    @MockBean
+    private UserStats userStats;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserBulkService userBulkService;
+
     @Test
     void createUser_ShouldReturnCreatedUser() throws Exception {
         // Given
         UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
 
-        when(userService.createUser(any(UserRequest.class))).thenReturn(userResponse);
+        when(userService.createUser(any(UserRequest.class))).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(post("/api/users")
@@ -76,16 +128,223 @@ class UserControllerTest {
                 new UserResponse(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now())
         );
 
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getAllUsers(null, null, 20))
+                .thenReturn(CollectionModel.of(users.stream().map(EntityModel::of).toList()));
 
         // When & Then
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$._embedded.userResponseList[*].id", contains(1, 2)));
+
+        verify(userService).getAllUsers(null, null, 20);
+    }
+
+    @Test
+    void getAllUsers_ShouldCapPageSize() throws Exception {
+        // Given
+        when(userService.getAllUsers(50L, null, 100)).thenReturn(CollectionModel.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("after", "50").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        verify(userService).getAllUsers(50L, null, 100);
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnBadRequest_WhenBothCursorsGiven() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users").param("after", "1").param("before", "10"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getAllUsers(any(), any(), anyInt());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnFlatArrayWithLinkHeader_WhenAcceptIsJson() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        UserRecordPage page = new UserRecordPage(List.of(
+                new UserRecord(11L, "John Doe", "john@example.com", 30, createdAt, 0L),
+                new UserRecord(12L, "Jane Smith", "jane@example.com", 25, createdAt, 1L)), 12L, 11L);
+        when(userService.getUserRecords(10L, null, 2)).thenReturn(page);
+
+        // When & Then: без EntityModel и ссылок на строки, соседние страницы — в заголовке Link
+        mockMvc.perform(get("/api/users?after=10&size=2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(11L))
+                .andExpect(jsonPath("$[1].version").value(1L))
+                .andExpect(jsonPath("$[0]._links").doesNotExist())
+                .andExpect(header().stringValues(HttpHeaders.LINK,
+                        "<http://localhost/api/users?size=2&after=12>;rel=\"next\"",
+                        "<http://localhost/api/users?size=2&before=11>;rel=\"prev\""))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + UserETags.ofPage(page) + "-compact\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        verify(userService, never()).getAllUsers(any(), any(), anyInt());
+    }
+
+    @Test
+    void getAllUsers_ShouldKeepHal_WhenHalIsPreferredOrViewIsHal() throws Exception {
+        // Given
+        when(userService.getAllUsers(null, null, 20)).thenReturn(CollectionModel.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/users").accept(MediaTypes.HAL_JSON, MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").param("view", "hal").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").param("view", "full"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, times(2)).getAllUsers(null, null, 20);
+        verify(userService, never()).getUserRecords(any(), any(), anyInt());
+    }
+
+    @Test
+    void searchUsers_ShouldReturnFlatArrayAndKeepFiltersInLinks_WhenViewIsCompact() throws Exception {
+        // Given
+        UserSearchCriteria criteria = new UserSearchCriteria("jo", null, null, null, null);
+        UserRecordPage page = new UserRecordPage(List.of(
+                new UserRecord(5L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L)), 5L, null);
+        when(userService.searchUserRecords(criteria, null, null, 20)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/search?name=jo&view=compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("john@example.com"))
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/api/users/search?name=jo&view=compact&after=5>;rel=\"next\""));
+
+        verify(userService, never()).searchUsers(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void searchUsers_ShouldPassFiltersToService() throws Exception {
+        // Given
+        UserSearchCriteria criteria = new UserSearchCriteria("jo", 18, 65,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0));
+        when(userService.searchUsers(criteria, 10L, null, 20)).thenReturn(CollectionModel.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/search")
+                        .param("name", " jo ")
+                        .param("minAge", "18")
+                        .param("maxAge", "65")
+                        .param("createdFrom", "2024-01-01T00:00:00")
+                        .param("createdTo", "2024-02-01T00:00:00")
+                        .param("after", "10"))
+                .andExpect(status().isOk());
+
+        verify(userService).searchUsers(criteria, 10L, null, 20);
+    }
+
+    @Test
+    void searchUsers_ShouldReturnBadRequest_WhenAgeRangeIsInverted() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/search").param("minAge", "40").param("maxAge", "30"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).searchUsers(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void searchUsers_ShouldReturnBadRequest_WhenDateIsMalformed() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/search").param("createdFrom", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid value of parameter 'createdFrom': yesterday"));
+    }
+
+    @Test
+    void suggestUsers_ShouldReturnSuggestionsWithCappedLimit() throws Exception {
+        // Given
+        when(userSuggestIndex.suggest("jo", 50)).thenReturn(List.of(new UserSuggestion(1L, "John Doe")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/suggest").param("q", "jo").param("limit", "1000"))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[1].id").value(2L));
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+    }
 
-        verify(userService).getAllUsers();
+    @Test
+    void suggestUsers_ShouldReturnBadRequest_WhenQueryIsTooShort() throws Exception {
+        // Given
+        when(userSuggestIndex.suggest("j", 10))
+                .thenThrow(new IllegalArgumentException("Query should contain at least 2 characters"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/suggest").param("q", "j"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStats_ShouldReturnInMemoryCounters() throws Exception {
+        // Given
+        when(userStats.getStats()).thenReturn(new UserStatsResponse(2,
+                List.of(new UserStatsResponse.AgeBucket("25-34", 2)),
+                List.of(new UserStatsResponse.DayCount(LocalDate.of(2024, 3, 10), 2)),
+                List.of(new UserStatsResponse.DomainCount("example.com", 2)),
+                LocalDateTime.of(2024, 3, 10, 12, 0)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.ageHistogram[0].range").value("25-34"))
+                .andExpect(jsonPath("$.createdPerDay[0].date").value("2024-03-10"))
+                .andExpect(jsonPath("$.topEmailDomains[0].domain").value("example.com"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void importUsers_ShouldReturnImportSummary() throws Exception {
+        // Given
+        when(userImportService.importCsv(any())).thenReturn(new UserImportResponse(2, 1, 1, 5, 400.0,
+                List.of(new UserImportResponse.RejectedLine(3, "Email should be valid")), false));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("name,email,age\nJohn Doe,john@example.com,30\nBad,not-an-email,20\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedLines[0].line").value(3));
+
+        verify(userImportService).importCsv(any());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamNewlineDelimitedJson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<UserRecord> consumer = invocation.getArgument(0);
+            consumer.accept(new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L));
+            consumer.accept(new UserRecord(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now(), 0L));
+            return null;
+        }).when(userService).exportUsers(any());
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], UserRecord.class).id());
+        assertEquals(2L, objectMapper.readValue(lines[1], UserRecord.class).id());
     }
 
     @Test
@@ -93,7 +352,7 @@ class UserControllerTest {
         // Given
         UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
 
-        when(userService.getUserById(1L)).thenReturn(userResponse);
+        when(userService.getUserById(1L)).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(get("/api/users/1"))
@@ -104,13 +363,130 @@ class UserControllerTest {
         verify(userService).getUserById(1L);
     }
 
+    @Test
+    void getUserById_ShouldReturnProtobufWithoutLinks() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 10, 12, 0, 0, 123_456_000);
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, createdAt, 2L);
+        when(userService.getUserById(1L)).thenReturn(EntityModel.of(userResponse, Link.of("/api/users/1")));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/users/1").accept(UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-x-protobuf\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        // Then
+        UserPayload user = UserProtobufCodec.readUser(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertEquals(new UserPayload(1L, "John Doe", "john@example.com", 30, user.createdAtMicros(), 2L), user);
+        assertEquals(createdAt, user.createdAt());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnCompactPageInCborAndSmile() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 10, 12, 0);
+        UserRecordPage page = new UserRecordPage(List.of(
+                new UserRecord(1L, "John Doe", "john@example.com", 30, createdAt, 0L),
+                new UserRecord(2L, "Jane Smith", "jane@example.com", 25, createdAt, 1L)), 2L, null);
+        when(userService.getUserRecords(null, null, 20)).thenReturn(page);
+
+        for (ObjectMapper mapper : List.of(new CBORMapper(), new SmileMapper())) {
+            MediaType mediaType = mapper instanceof CBORMapper
+                    ? MediaType.APPLICATION_CBOR : UserBinaryHttpMessageConverter.APPLICATION_SMILE;
+
+            // When
+            MvcResult result = mockMvc.perform(get("/api/users").accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaType))
+                    .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/users?after=2>;rel=\"next\""))
+                    .andExpect(header().string(HttpHeaders.ETAG,
+                            "\"" + UserETags.ofPage(page) + "-" + mediaType.getSubtype() + "\""))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                    .andReturn();
+
+            // Then
+            UserPagePayload payload = mapper.readValue(result.getResponse().getContentAsByteArray(), UserPagePayload.class);
+            assertEquals(List.of(1L, 2L), payload.users().stream().map(UserPayload::id).toList());
+            assertEquals("jane@example.com", payload.users().get(1).email());
+            assertEquals(createdAt, payload.users().get(0).createdAt());
+            assertEquals(2L, payload.nextAfter());
+            assertNull(payload.prevBefore());
+        }
+
+        // HAL-модель со ссылками на строки для двоичных форматов не строится
+        verify(userService, never()).getAllUsers(any(), any(), anyInt());
+    }
+
+    @Test
+    void getUserById_ShouldVaryByAccept_WithETagPerRepresentation() throws Exception {
+        // Given
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 3L);
+        when(userService.getUserById(1L)).thenReturn(EntityModel.of(userResponse));
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        // When
+        MvcResult hal = mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.HAL_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        // Then: тег CBOR-ответа не подходит клиенту HAL, а свой — даёт 304 с тем же Vary
+        String halETag = hal.getResponse().getHeader(HttpHeaders.ETAG);
+        String cborETag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"3\"", halETag);
+        assertEquals("\"3-cbor\"", cborETag);
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, halETag));
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, cborETag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void getUserById_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnNotModified_WhenPageETagMatches() throws Exception {
+        // Given
+        when(userService.getUsersPageETag(null, null, 20)).thenReturn("2-abc");
+
+        // When & Then
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, "\"2-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-abc\""));
+
+        verify(userService, never()).getAllUsers(any(), any(), anyInt());
+    }
+
     @Test
     void updateUser_ShouldReturnUpdatedUser() throws Exception {
         // Given
         UserRequest userRequest = new UserRequest("John Updated", "john.updated@example.com", 35);
         UserResponse userResponse = new UserResponse(1L, "John Updated", "john.updated@example.com", 35, LocalDateTime.now());
 
-        when(userService.updateUser(eq(1L), any(UserRequest.class))).thenReturn(userResponse);
+        when(userService.updateUser(eq(1L), any(UserRequest.class), isNull())).thenReturn(EntityModel.of(userResponse));
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -122,7 +498,69 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("john.updated@example.com"))
                 .andExpect(jsonPath("$.age").value(35));
 
-        verify(userService).updateUser(eq(1L), any(UserRequest.class));
+        verify(userService).updateUser(eq(1L), any(UserRequest.class), isNull());
+    }
+
+    @Test
+    void patchUser_ShouldReturnPatchedUserWithETag() throws Exception {
+        // Given
+        UserResponse userResponse = new UserResponse(1L, "John Doe", "john@example.com", 31, LocalDateTime.now(), 4L);
+
+        when(userService.patchUser(eq(1L), any(UserPatchRequest.class), eq(3L))).thenReturn(EntityModel.of(userResponse));
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.age").value(31));
+    }
+
+    @Test
+    void patchUser_ShouldReturnPreconditionFailed_WhenVersionIsStale() throws Exception {
+        // Given
+        when(userService.patchUser(eq(1L), any(UserPatchRequest.class), eq(3L)))
+                .thenThrow(new VersionConflictException(1L, 3L, 5L));
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    void patchUser_ShouldReturnNotFound_WhenUserIsMissing() throws Exception {
+        // Given
+        when(userService.patchUser(eq(99L), any(UserPatchRequest.class), isNull()))
+                .thenThrow(new UserNotFoundException(99L));
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchUser_ShouldReturnBadRequest_WhenValuesExceedColumnLength() throws Exception {
+        // Given: varchar(100)/varchar(150) — без проверки длины БД отвечала бы ошибкой усечения, а клиент — 500
+        String name = "n".repeat(101);
+        String email = "e".repeat(140) + "@example.com";
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Name should not exceed 100 characters")))
+                .andExpect(content().string(containsString("Email should not exceed 150 characters")));
+
+        verify(userService, never()).patchUser(any(), any(), any());
     }
 
     @Test
@@ -133,4 +571,72 @@ class UserControllerTest {
 
         verify(userService).deleteUser(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteUsers_ShouldReturnDeletedCount() throws Exception {
+        // Given
+        when(userService.deleteUsers(List.of(1L, 2L, 3L))).thenReturn(new UserBulkDeleteResponse(3, 2));
+
+        // When & Then
+        mockMvc.perform(delete("/api/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    void deleteUsers_ShouldReturnBadRequest_WhenNoIdsGiven() throws Exception {
+        // When & Then
+        mockMvc.perform(delete("/api/users"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
+    @Test
+    void bulkUpdateUsers_ShouldReturnAffectedCount() throws Exception {
+        // Given
+        UserBulkUpdateRequest request = new UserBulkUpdateRequest(new UserBulkFilter(null, null, null, 18, 25), null, 1);
+        when(userBulkService.updateUsers(any())).thenReturn(new UserBulkOperationResponse(1200, 2, 85));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1200))
+                .andExpect(jsonPath("$.chunks").value(2));
+    }
+
+    @Test
+    void bulkUpdateUsers_ShouldReturnBadRequest_WhenAgeDeltaIsOutOfBounds() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"minAge\": 18}, \"ageDelta\": 201}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Age delta should not exceed 200"));
+        mockMvc.perform(post("/api/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"minAge\": 18}, \"ageDelta\": " + Integer.MIN_VALUE + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Age delta should not be less than -200"));
+
+        verifyNoInteractions(userBulkService);
+    }
+
+    @Test
+    void bulkDeleteUsers_ShouldReturnBadRequest_WhenFilterIsEmptyOrInvalid() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"minAge\": 30, \"maxAge\": 20}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userBulkService);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.controller;
+
+import com.example.dto.UserSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+class UserLinkFactoryTest {
+
+    private final UserLinkFactory userLinkFactory = new UserLinkFactory();
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void bindRequest() {
+        request = new MockHttpServletRequest("GET", "/api/users");
+        request.setServerName("api.example.com");
+        request.setServerPort(8443);
+        request.setScheme("https");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void userLinks_ShouldMatchMethodOnLinks() {
+        // When
+        Link self = userLinkFactory.self(42L);
+        Link update = userLinkFactory.user(42L, "update");
+
+        // Then
+        assertEquals(linkTo(methodOn(UserController.class).getUserById(42L, null, null)).withSelfRel().getHref(), self.getHref());
+        assertEquals(linkTo(methodOn(UserController.class).updateUser(42L, null, null)).withRel("update").getHref(), update.getHref());
+        assertEquals("update", update.getRel().value());
+        assertEquals("https://api.example.com:8443/api/users/42", self.getHref());
+    }
+
+    @Test
+    void usersPage_ShouldIncludeOnlyGivenCursors() {
+        // When
+        Link next = userLinkFactory.usersPage(20L, null, 10, IanaLinkRelations.NEXT_VALUE);
+        Link prev = userLinkFactory.usersPage(null, 11L, 10, IanaLinkRelations.PREV_VALUE);
+
+        // Then
+        assertEquals("https://api.example.com:8443/api/users?after=20&size=10", next.getHref());
+        assertEquals("https://api.example.com:8443/api/users?before=11&size=10", prev.getHref());
+        assertFalse(next.isTemplated());
+    }
+
+    @Test
+    void searchPage_ShouldKeepFilters_AndEncodeName() {
+        // Given
+        UserSearchCriteria criteria = new UserSearchCriteria("Mary Ann&Co", 18, null,
+                LocalDateTime.of(2024, 1, 1, 10, 30), null);
+
+        // When
+        Link next = userLinkFactory.searchPage(criteria, 40L, null, 20, IanaLinkRelations.NEXT_VALUE);
+
+        // Then
+        assertEquals("https://api.example.com:8443/api/users/search?name=Mary%20Ann%26Co&minAge=18"
+                + "&createdFrom=2024-01-01T10:30&after=40&size=20", next.getHref());
+    }
+
+    @Test
+    void usersUri_ShouldBeResolvedOncePerRequest() {
+        // Given
+        String first = userLinkFactory.usersUri();
+        request.setServerName("other.example.com");
+
+        // When
+        String second = userLinkFactory.usersUri();
+
+        // Then
+        assertSame(first, second);
+    }
+}
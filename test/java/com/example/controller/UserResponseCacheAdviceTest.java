@@ -0,0 +1,89 @@
+package com.example.controller;
+
+import com.example.config.UserBinaryHttpMessageConverter;
+import com.example.dto.UserResponse;
+import com.example.service.UserBulkService;
+import com.example.service.UserImportService;
+import com.example.service.UserResponseCache;
+import com.example.service.UserService;
+import com.example.service.UserStats;
+import com.example.service.UserSuggestIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Кеш ответов на своём контексте: в общем срезе UserControllerTest заглушки с одинаковыми id и версиями
+// получали бы байты друг друга
+@WebMvcTest(UserController.class)
+@Import(UserResponseCache.class)
+class UserResponseCacheAdviceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserSuggestIndex userSuggestIndex;
+
+    @MockBean
+    private UserStats userStats;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserBulkService userBulkService;
+
+    @Test
+    void getUserById_ShouldWriteCachedBytes_UntilVersionChanges() throws Exception {
+        // Given
+        when(userService.getUserById(1L)).thenReturn(user("John Doe", 0L));
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"));
+
+        // When: та же версия — ответ из кеша, хотя сервис вернул бы другое имя
+        when(userService.getUserById(1L)).thenReturn(user("Johnny", 0L));
+
+        // Then
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaTypes.HAL_JSON))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/api/users/1"));
+        mockMvc.perform(get("/api/users/1").accept(UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserBinaryHttpMessageConverter.APPLICATION_PROTOBUF));
+
+        when(userService.getUserById(1L)).thenReturn(user("Johnny", 1L));
+        mockMvc.perform(get("/api/users/1").accept(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$.name").value("Johnny"))
+                .andExpect(jsonPath("$.version").value(1L));
+
+        assertEquals(0.25, userResponseCache.hitRatio());
+    }
+
+    private static EntityModel<UserResponse> user(String name, Long version) {
+        UserResponse response = new UserResponse(1L, name, "john@example.com", 30, LocalDateTime.now(), version);
+        return EntityModel.of(response, Link.of("http://localhost/api/users/1"));
+    }
+}
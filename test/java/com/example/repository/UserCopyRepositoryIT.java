@@ -0,0 +1,91 @@
+package com.example.repository;
+
+import com.example.dto.UserImportResponse;
+import com.example.dto.UserImportResponse.RejectedLine;
+import com.example.entity.User;
+import com.example.service.UserImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Импорт CSV через COPY: конфликты email с существующими строками и внутри пачки, id из общей последовательности
+@SpringBootTest(properties = "app.users.import.chunk-size=3")
+@Testcontainers
+class UserCopyRepositoryIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_ShouldCopyRowsAndSkipExistingEmails() throws IOException {
+        // Given: один email уже занят, другой повторяется внутри одной пачки
+        User existing = userRepository.save(new User("Existing", "taken@example.com", 50));
+        String csv = """
+                name,email,age
+                "Doe, John",john@example.com,30
+                Taken,taken@example.com,41
+                Jane Smith,jane@example.com,25
+                Bob Brown,bob@example.com,44
+                Bob Again,bob@example.com,45
+                Alice Green,alice@example.com,33
+                """;
+
+        // When
+        UserImportResponse response = userImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(6, response.rows());
+        assertEquals(4, response.accepted());
+        assertEquals(List.of(
+                new RejectedLine(3, "User with email taken@example.com already exists"),
+                new RejectedLine(6, "User with email bob@example.com already exists")), response.rejectedLines());
+
+        assertEquals("Doe, John", userRepository.findByEmail("john@example.com").orElseThrow().getName());
+        assertEquals("Bob Brown", userRepository.findByEmail("bob@example.com").orElseThrow().getName());
+        assertEquals(5, userRepository.count());
+        assertEquals("Existing", userRepository.findById(existing.getId()).orElseThrow().getName());
+
+        // Пользователь, созданный через JPA после импорта, получает id, не занятый импортом
+        userRepository.saveAndFlush(new User("After Import", "after@example.com", 20));
+        assertEquals(6L, jdbcTemplate.queryForObject("select count(distinct id) from users", Long.class));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.repository;
+
+import com.example.dto.UserSearchCriteria;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.StringUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Планы PostgreSQL для запросов поиска: каждый фильтр должен идти по своему индексу, а не Seq Scan
+@SpringBootTest(properties = {
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=postgresql",
+        "spring.jpa.defer-datasource-initialization=true"
+})
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserSearchRepositoryIT {
+
+    private static final int ROWS = 20_000;
+    private static final int PAGE_SIZE = 20;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Возраст 18..77 равномерно, каждый тысячный — 90+; created_at — по минуте на пользователя
+    @BeforeAll
+    void seedUsers() {
+        jdbcTemplate.update("delete from users");
+        List<Object[]> batch = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            int age = i % 1000 == 0 ? 90 + i / 1000 % 10 : 18 + i % 60;
+            batch.add(new Object[]{(long) i, "User " + i, "user" + i + "@example.com", age,
+                    Timestamp.valueOf(BASE_TIME.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into users (id, name, email, age, created_at, version) values (?, ?, ?, ?, ?, 0)", batch);
+        jdbcTemplate.execute("analyze users");
+    }
+
+    @Test
+    void search_ShouldUseNamePrefixIndex() {
+        // When
+        String plan = explain(new UserSearchCriteria("USER 123", null, null, null, null), "user 123%");
+
+        // Then
+        assertUsesIndex(plan, "idx_users_name_lower");
+    }
+
+    @Test
+    void search_ShouldUseAgeIndex() {
+        // When
+        String plan = explain(new UserSearchCriteria(null, 90, null, null, null), 90);
+
+        // Then
+        assertUsesIndex(plan, "idx_users_age");
+    }
+
+    @Test
+    void search_ShouldUseCreatedAtIndex() {
+        // Given
+        LocalDateTime from = BASE_TIME.plusMinutes(5_000);
+        LocalDateTime to = from.plusMinutes(30);
+
+        // When
+        String plan = explain(new UserSearchCriteria(null, null, null, from, to), from, to);
+
+        // Then
+        assertUsesIndex(plan, "idx_users_created_at");
+    }
+
+    // SQL берётся у Hibernate (тот же Specification, что и в приложении), параметры подставляются в том же порядке:
+    // фильтры, курсор id > 0, размер страницы + 1
+    private String explain(UserSearchCriteria criteria, Object... filterParameters) {
+        List<String> statements = new ArrayList<>();
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class)
+                .withOptions()
+                .statementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            new UserSearchRepositoryImpl(session).search(criteria, null, null, Limit.of(PAGE_SIZE + 1));
+        }
+        assertEquals(1, statements.size());
+        String sql = statements.get(0);
+
+        List<Object> parameters = new ArrayList<>(Arrays.asList(filterParameters));
+        parameters.add(0L);
+        parameters.add(PAGE_SIZE + 1);
+        assertEquals(parameters.size(), StringUtils.countOccurrencesOf(sql, "?"), sql);
+
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters.toArray()));
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+}
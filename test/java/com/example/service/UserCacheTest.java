@@ -0,0 +1,115 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<Long, UserRecord> loader = id -> {
+        loads.incrementAndGet();
+        return new UserRecord(id, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+    };
+
+    @Test
+    void get_ShouldLoadOnlyOnce_WhenEnabled() {
+        // Given
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+
+        // When
+        userCache.get(1L, loader);
+        userCache.get(1L, loader);
+
+        // Then
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenDisabled() {
+        // Given
+        UserCache userCache = new UserCache(false, 100, Duration.ofMinutes(1));
+
+        // When
+        userCache.get(1L, loader);
+        userCache.get(1L, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onUserChanged_ShouldInvalidateUpdatedAndDeletedUsers() {
+        // Given
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        userCache.get(1L, loader);
+        userCache.get(2L, loader);
+
+        // When
+        userCache.onUserChanged(UserChangedEvent.updated(new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 1L)));
+        userCache.onUserChanged(UserChangedEvent.deleted(2L));
+        userCache.get(1L, loader);
+        userCache.get(2L, loader);
+
+        // Then
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void bindTo_ShouldExposeHitAndMissCounters() {
+        // Given
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+
+        // When
+        userCache.get(1L, loader);
+        userCache.get(1L, loader);
+
+        // Then
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void invalidate_ShouldNotWaitForLoadInProgress() throws Exception {
+        // Given: загрузка id=1 зависла (как запрос, ждущий соединение из пула)
+        UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        Thread reader = new Thread(() -> userCache.get(1L, id -> {
+            loadStarted.countDown();
+            awaitQuietly(releaseLoad);
+            return loader.apply(id);
+        }));
+        reader.start();
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> userCache.invalidate(1L));
+        releaseLoad.countDown();
+        reader.join();
+
+        // Then: результат прерванной загрузки не закеширован, следующее чтение идёт в БД
+        userCache.get(1L, loader);
+        assertEquals(2, loads.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
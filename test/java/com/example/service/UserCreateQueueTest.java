@@ -0,0 +1,171 @@
+package com.example.service;
+
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserCreateStatus;
+import com.example.dto.UserRequest;
+import com.example.exception.UserCreateRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UserCreateQueueTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    private UserCreateQueue queue;
+
+    @AfterEach
+    void stopQueue() {
+        if (queue != null && queue.isRunning()) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void enqueue_ShouldWriteQueuedUsersInOneBatch() {
+        // Given
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = start(100, Duration.ofSeconds(1));
+
+        // When
+        String john = queue.enqueue(new UserRequest("John Doe", "john@example.com", 30)).getContent().getRequestId();
+        String jane = queue.enqueue(new UserRequest("Jane Smith", "jane@example.com", 25)).getContent().getRequestId();
+        queue.stop();
+
+        // Then
+        verify(userService, times(1)).createUsers(anyList());
+        assertEquals(UserCreateStatus.Status.CREATED, status(john).getStatus());
+        assertEquals(1L, status(john).getUserId());
+        assertEquals(2L, status(jane).getUserId());
+    }
+
+    @Test
+    void enqueue_ShouldRejectEmailAlreadyQueued() {
+        // Given
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = start(100, Duration.ofSeconds(1));
+        queue.enqueue(new UserRequest("John Doe", "john@example.com", 30));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> queue.enqueue(new UserRequest("Johnny", "john@example.com", 31))
+        );
+        assertEquals("User with email john@example.com already exists", exception.getMessage());
+    }
+
+    @Test
+    void enqueue_ShouldReject_WhenQueueIsFull() throws Exception {
+        // Given: писатель занят первой пачкой, в очереди место на один запрос
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return created(invocation.getArgument(0));
+        });
+        queue = start(1, Duration.ZERO);
+        queue.enqueue(new UserRequest("John Doe", "john@example.com", 30));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        String jane = queue.enqueue(new UserRequest("Jane Smith", "jane@example.com", 25)).getContent().getRequestId();
+
+        // When & Then
+        UserCreateRejectedException exception = assertThrows(
+                UserCreateRejectedException.class,
+                () -> queue.enqueue(new UserRequest("Bob Brown", "bob@example.com", 40))
+        );
+        assertFalse(exception.isShuttingDown());
+
+        // Email отклонённого запроса не остаётся зарезервированным
+        release.countDown();
+        awaitStatus(jane, UserCreateStatus.Status.CREATED);
+        assertNotNull(queue.enqueue(new UserRequest("Bob Brown", "bob@example.com", 40)));
+    }
+
+    @Test
+    void stop_ShouldDrainAcceptedRequests_AndRejectNewOnes() {
+        // Given
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = start(100, Duration.ofSeconds(5));
+        List<String> requestIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requestIds.add(queue.enqueue(new UserRequest("User " + i, "user" + i + "@example.com", 30)).getContent().getRequestId());
+        }
+
+        // When
+        queue.stop();
+
+        // Then
+        requestIds.forEach(requestId -> assertEquals(UserCreateStatus.Status.CREATED, status(requestId).getStatus()));
+        UserCreateRejectedException exception = assertThrows(
+                UserCreateRejectedException.class,
+                () -> queue.enqueue(new UserRequest("Late", "late@example.com", 30))
+        );
+        assertTrue(exception.isShuttingDown());
+    }
+
+    @Test
+    void write_ShouldRetryOneByOne_WhenEmailWasRegisteredConcurrently() {
+        // Given: пачка откатывается из-за jane@example.com, по одному создаётся только john
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            List<UserRequest> requests = invocation.getArgument(0);
+            if (requests.size() > 1) {
+                throw new IllegalArgumentException("Some emails of the batch were registered concurrently, retry the batch");
+            }
+            if (requests.get(0).getEmail().equals("jane@example.com")) {
+                throw new IllegalArgumentException("User with email jane@example.com already exists");
+            }
+            return created(requests);
+        });
+        queue = new UserCreateQueue(userService, new UserLinkFactory(), 100, 100,
+                Duration.ZERO, Duration.ofMinutes(1), 1000, Duration.ofSeconds(5));
+
+        // When
+        queue.write(List.of(
+                new UserCreateQueue.PendingCreate("john", new UserRequest("John Doe", "john@example.com", 30)),
+                new UserCreateQueue.PendingCreate("jane", new UserRequest("Jane Smith", "jane@example.com", 25))));
+
+        // Then
+        assertEquals(UserCreateStatus.Status.CREATED, status("john").getStatus());
+        assertEquals(UserCreateStatus.Status.FAILED, status("jane").getStatus());
+        assertEquals("User with email jane@example.com already exists", status("jane").getMessage());
+    }
+
+    private UserCreateQueue start(int capacity, Duration flushInterval) {
+        UserCreateQueue userCreateQueue = new UserCreateQueue(userService, new UserLinkFactory(), capacity, 100,
+                flushInterval, Duration.ofMinutes(1), 1000, Duration.ofSeconds(5));
+        userCreateQueue.start();
+        return userCreateQueue;
+    }
+
+    private void awaitStatus(String requestId, UserCreateStatus.Status expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (status(requestId).getStatus() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, status(requestId).getStatus());
+    }
+
+    private UserCreateStatus status(String requestId) {
+        return queue.getStatus(requestId).orElseThrow().getContent();
+    }
+
+    private static UserBatchResponse created(List<UserRequest> requests) {
+        List<UserBatchItemResult> results = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(UserBatchItemResult.created(i, (long) i + 1, requests.get(i).getEmail()));
+        }
+        return new UserBatchResponse(results);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.service;
+
+import com.example.dto.UserResponse;
+import com.example.dto.UserVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserETagsTest {
+
+    @Test
+    void ofPage_ShouldChange_WhenAnyVersionChanges() {
+        // Given
+        List<UserVersion> page = List.of(new UserVersion(1L, 5L), new UserVersion(2L, 0L));
+        List<UserVersion> updated = List.of(new UserVersion(1L, 5L), new UserVersion(2L, 1L));
+
+        // When & Then: максимальная версия и количество не изменились, но отпечаток должен
+        assertNotEquals(UserETags.ofPage(page, false, false), UserETags.ofPage(updated, false, false));
+        assertNotEquals(UserETags.ofPage(page, false, false), UserETags.ofPage(page, true, false));
+        assertEquals(UserETags.ofPage(page, true, false), UserETags.ofPage(List.copyOf(page), true, false));
+    }
+
+    @Test
+    void ofPage_ShouldMatchProjection_WhenComputedFromModel() {
+        // Given
+        CollectionModel<EntityModel<UserResponse>> users = CollectionModel.of(List.of(
+                        EntityModel.of(new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 5L)),
+                        EntityModel.of(new UserResponse(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now(), 0L))),
+                Link.of("/api/users?after=2&size=2", IanaLinkRelations.NEXT));
+
+        // When & Then
+        assertEquals(
+                UserETags.ofPage(List.of(new UserVersion(1L, 5L), new UserVersion(2L, 0L)), true, false),
+                UserETags.ofPage(users));
+    }
+
+    @Test
+    void matches_ShouldAcceptListsWildcardAndWeakTags() {
+        assertTrue(UserETags.matches("\"3\"", "3"));
+        assertTrue(UserETags.matches("\"1\", W/\"3\"", "3"));
+        assertTrue(UserETags.matches("*", "3"));
+        assertFalse(UserETags.matches("\"2\"", "3"));
+        assertFalse(UserETags.matches("3", "3"));
+    }
+}
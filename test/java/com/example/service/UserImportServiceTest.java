@@ -0,0 +1,189 @@
+package com.example.service;
+
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserImportResponse;
+import com.example.dto.UserImportResponse.RejectedLine;
+import com.example.dto.UserRequest;
+import com.example.dto.UserResponse;
+import com.example.repository.UserCopyRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+// Путь без COPY (JdbcTemplate-заглушка не отвечает PostgreSQL): пачки уходят в UserService.createUsers
+class UserImportServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final UserCopyRepository userCopyRepository = mock(UserCopyRepository.class);
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            List<UserRequest> requests = invocation.getArgument(0);
+            List<UserBatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                String email = requests.get(i).getEmail();
+                results.add(email.startsWith("taken")
+                        ? UserBatchItemResult.duplicate(i, email, "User with email " + email + " already exists")
+                        : UserBatchItemResult.created(i, 100L + i, email));
+            }
+            return new UserBatchResponse(results);
+        });
+        importService = new UserImportService(userService, userCopyRepository, mock(JdbcTemplate.class),
+                mock(TransactionTemplate.class), Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(ApplicationEventPublisher.class), 2, 10);
+    }
+
+    @Test
+    void importCsv_ShouldImportValidRowsInChunksAndReportRejectedLines() throws IOException {
+        // Given
+        String csv = """
+                age,name,email
+                30,John Doe,john@example.com
+                abc,Bad Age,bad.age@example.com
+
+                25,Jane Smith,jane@example.com
+                41,Taken,taken@example.com
+                19,No Email,
+                """;
+
+        // When
+        UserImportResponse response = importService.importCsv(stream(csv));
+
+        // Then
+        assertEquals(5, response.rows());
+        assertEquals(2, response.accepted());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(
+                new RejectedLine(3, "Age should be a number"),
+                new RejectedLine(6, "User with email taken@example.com already exists"),
+                new RejectedLine(7, "Email is required")), response.rejectedLines());
+        assertFalse(response.rejectedLinesTruncated());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserRequest>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(userService, times(2)).createUsers(chunks.capture());
+        assertEquals(List.of("john@example.com", "jane@example.com"),
+                chunks.getAllValues().get(0).stream().map(UserRequest::getEmail).toList());
+        assertEquals(30, chunks.getAllValues().get(0).get(0).getAge());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+        verifyNoInteractions(userCopyRepository);
+    }
+
+    @Test
+    void importCsv_ShouldReadRowsWithoutHeaderAndQuotedFields() throws IOException {
+        // Given
+        String csv = "\uFEFF\"Doe, \"\"JD\"\" John\",jd@example.com,30\n\"Unterminated,x@example.com,20\n";
+
+        // When
+        UserImportResponse response = importService.importCsv(stream(csv));
+
+        // Then
+        assertEquals(2, response.rows());
+        assertEquals(1, response.accepted());
+        assertEquals(List.of(new RejectedLine(2, "Unterminated quoted field")), response.rejectedLines());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserRequest>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(userService).createUsers(chunk.capture());
+        assertEquals("Doe, \"JD\" John", chunk.getValue().get(0).getName());
+    }
+
+    @Test
+    void importCsv_ShouldRetryChunkRowByRow_WhenEmailIsRegisteredConcurrently() throws IOException {
+        // Given: первая пачка проходит, во второй email заняли между проверкой и INSERT
+        doThrow(new IllegalArgumentException("Some emails of the batch were registered concurrently, retry the batch"))
+                .when(userService).createUsers(argThat(requests -> requests.stream()
+                        .anyMatch(request -> request.getEmail().equals("raced@example.com"))));
+        when(userService.createUser(any(UserRequest.class))).thenAnswer(invocation -> {
+            UserRequest request = invocation.getArgument(0);
+            if (request.getEmail().equals("raced@example.com")) {
+                throw new IllegalArgumentException("User with email raced@example.com already exists");
+            }
+            return EntityModel.of(new UserResponse(200L, request.getName(), request.getEmail(), request.getAge(), null));
+        });
+        String csv = """
+                John Doe,john@example.com,30
+                Jane Smith,jane@example.com,25
+                Raced,raced@example.com,41
+                Bob,bob@example.com,35
+                """;
+
+        // When
+        UserImportResponse response = importService.importCsv(stream(csv));
+
+        // Then
+        assertEquals(4, response.rows());
+        assertEquals(3, response.accepted());
+        assertEquals(List.of(new RejectedLine(3, "User with email raced@example.com already exists")),
+                response.rejectedLines());
+        verify(userService, times(2)).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void importCsv_ShouldRejectOverlongLineWithoutBufferingIt() throws IOException {
+        // Given: мегабайт без перевода строки, затем обычные строки через \r\n
+        String csv = "John Doe,john@example.com,30\r\n"
+                + "x".repeat(1_000_000) + "\r\n"
+                + "Jane Smith,jane@example.com,25\r\n";
+
+        // When
+        UserImportResponse response = importService.importCsv(stream(csv));
+
+        // Then
+        assertEquals(3, response.rows());
+        assertEquals(2, response.accepted());
+        assertEquals(List.of(new RejectedLine(2, "Line exceeds " + UserCsvReader.MAX_LINE_LENGTH + " characters")),
+                response.rejectedLines());
+    }
+
+    @Test
+    void importCsv_ShouldTruncateRejectedLinesButCountAll() throws IOException {
+        // Given
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 15; i++) {
+            csv.append("User ").append(i).append(",not-an-email,30\n");
+        }
+
+        // When
+        UserImportResponse response = importService.importCsv(stream(csv.toString()));
+
+        // Then
+        assertEquals(15, response.rejected());
+        assertEquals(10, response.rejectedLines().size());
+        assertTrue(response.rejectedLinesTruncated());
+        verify(userService, never()).createUsers(anyList());
+    }
+
+    @Test
+    void importCsv_ShouldRejectHeaderWithoutRequiredColumns() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importCsv(stream("name,email\nJohn,john@example.com\n")));
+        verifyNoInteractions(userService);
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
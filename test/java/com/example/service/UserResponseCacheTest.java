@@ -0,0 +1,99 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserResponseCacheTest {
+
+    private static final String HAL = "application/hal+json http://localhost/api/users/1";
+    private static final String PROTOBUF = "application/x-protobuf http://localhost/api/users/1";
+
+    @Test
+    void get_ShouldReturnBytesOnlyForSameVersionAndVariant() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(DataSize.ofKilobytes(64), false);
+        cache.put(1L, 0L, HAL, bytes("{\"id\":1}"));
+
+        // When & Then
+        assertEquals("{\"id\":1}", string(cache.get(1L, 0L, HAL)));
+        assertEquals("{\"id\":1}", string(cache.get(1L, 0L, HAL)));
+        assertNull(cache.get(1L, 1L, HAL));
+        assertNull(cache.get(1L, 0L, PROTOBUF));
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void put_ShouldKeepNewerVersion_AndReplaceOlderOne() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(DataSize.ofKilobytes(64), false);
+        cache.put(1L, 0L, HAL, bytes("v0"));
+        cache.put(1L, 0L, PROTOBUF, bytes("p0"));
+
+        // When
+        cache.put(1L, 2L, HAL, bytes("v2"));
+        cache.put(1L, 1L, HAL, bytes("v1"));
+
+        // Then: варианты старой версии ушли вместе с ней, запоздавшая версия 1 не записалась
+        assertEquals("v2", string(cache.get(1L, 2L, HAL)));
+        assertNull(cache.get(1L, 2L, PROTOBUF));
+        assertNull(cache.get(1L, 1L, HAL));
+        assertEquals(2, cache.weightedBytes());
+    }
+
+    @Test
+    void onUserChanged_ShouldInvalidateUpdatedAndDeletedUsers() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(DataSize.ofKilobytes(64), false);
+        cache.put(1L, 0L, HAL, bytes("one"));
+        cache.put(2L, 0L, HAL, bytes("two"));
+        cache.put(3L, 0L, HAL, bytes("three"));
+
+        // When
+        cache.onUserChanged(UserChangedEvent.updated(new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 1L)));
+        cache.onUserChanged(UserChangedEvent.deleted(2L));
+
+        // Then
+        assertNull(cache.get(1L, 0L, HAL));
+        assertNull(cache.get(2L, 0L, HAL));
+        assertEquals("three", string(cache.get(3L, 0L, HAL)));
+        assertEquals(5, cache.weightedBytes());
+    }
+
+    @Test
+    void put_ShouldEvictByBytes_AndKeepOffHeapCopies() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(DataSize.ofBytes(1000), true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // When
+        for (long id = 1; id <= 100; id++) {
+            cache.put(id, 0L, HAL, new byte[100]);
+        }
+        ByteBuffer last = cache.put(101L, 0L, HAL, bytes("direct"));
+
+        // Then
+        assertTrue(last.isDirect());
+        assertTrue(cache.weightedBytes() <= 1000);
+        assertEquals("off-heap", registry.get("users.response.cache.bytes").gauge().getId().getTag("storage"));
+        assertTrue(registry.get("users.response.cache.evictions").functionCounter().count() > 0);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer bytes) {
+        byte[] copy = new byte[bytes.remaining()];
+        bytes.get(copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -1,121 +1,472 @@
 package com.example.service;
 
+import com.example.dto.UserBulkDeleteResponse;
+import com.example.dto.UserBulkFilter;
+import com.example.dto.UserBulkOperationResponse;
+import com.example.dto.UserBulkUpdateRequest;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
+import com.example.dto.UserSearchCriteria;
 import com.example.entity.User;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
 import com.example.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
-class UserServiceTest {
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserServiceIntegrationTest {
 
-    @Mock
+    @Autowired
+    private UserService userService;
+
+    @Autowired
     private UserRepository userRepository;
 
-    @InjectMocks
-    private UserService userService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
 
     @Test
-    void createUser_ShouldCreateUser_WhenEmailIsUnique() {
+    void createUser_ShouldRejectDuplicates_WhenWritersRaceOnSameEmail() throws Exception {
         // Given
-        UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
-        User user = new User("John Doe", "john@example.com", 30);
-        user.setId(1L);
-        user.setCreatedAt(LocalDateTime.now());
+        int writers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Boolean> writer = () -> {
+            start.await();
+            try {
+                userService.createUser(new UserRequest("Racer", "race@example.com", 30));
+                return true;
+            } catch (IllegalArgumentException ex) {
+                assertEquals("User with email race@example.com already exists", ex.getMessage());
+                return false;
+            }
+        };
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            results.add(executor.submit(writer));
+        }
 
         // When
-        UserResponse result = userService.createUser(userRequest);
+        start.countDown();
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            // Любое другое исключение (то, что раньше становилось 500) провалит get()
+            if (result.get()) {
+                created++;
+            }
+        }
+        executor.shutdown();
 
         // Then
-        assertNotNull(result);
-        assertEquals(1L, result.getId());
-        assertEquals("John Doe", result.getName());
-        assertEquals("john@example.com", result.getEmail());
-        assertEquals(30, result.getAge());
-
-        verify(userRepository).existsByEmail("john@example.com");
-        verify(userRepository).save(any(User.class));
+        assertEquals(1, created);
+        assertEquals(1, userRepository.count());
     }
 
     @Test
-    void createUser_ShouldThrowException_WhenEmailExists() {
+    void createUser_ShouldIssueSingleStatement_WhenIdIsPreallocated() {
         // Given
-        UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
+        userService.createUser(new UserRequest("John Doe", "john@example.com", 30));
+        statistics.clear();
+
+        // When
+        userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25));
+
+        // Then: только INSERT, без existsByEmail и без nextval (id из пула последовательности)
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+    @Test
+    void updateUser_ShouldRejectEmailOfAnotherUser() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
-                () -> userService.createUser(userRequest)
+                () -> userService.updateUser(johnId, new UserRequest("John Doe", "jane@example.com", 30))
+        );
+
+        assertEquals("User with email jane@example.com already exists", exception.getMessage());
+        assertEquals("john@example.com", userRepository.findById(johnId).orElseThrow().getEmail());
+    }
+
+    @Test
+    void patchUser_ShouldIssueSingleUpdate_AndBumpVersion() {
+        // Given
+        UserResponse john = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent();
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAge(31);
+        statistics.clear();
+
+        // When
+        UserResponse patched = userService.patchUser(john.getId(), patch, john.getVersion()).getContent();
+
+        // Then: UPDATE + чтение результата, без SELECT перед обновлением
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(31, patched.getAge());
+        assertEquals("john@example.com", patched.getEmail());
+        assertEquals(john.getVersion() + 1, patched.getVersion());
+    }
+
+    @Test
+    void patchUser_ShouldRejectStaleVersion() {
+        // Given
+        UserResponse john = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent();
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setName("Johnny");
+        userService.patchUser(john.getId(), patch, john.getVersion());
+
+        // When & Then
+        VersionConflictException exception = assertThrows(
+                VersionConflictException.class,
+                () -> userService.patchUser(john.getId(), patch, john.getVersion())
         );
 
-        assertEquals("User with email john@example.com already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals(john.getVersion() + 1, exception.getCurrentVersion());
+    }
+
+    @Test
+    void deleteUser_ShouldIssueSingleStatement() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        statistics.clear();
+
+        // When
+        userService.deleteUser(johnId);
+
+        // Then: только DELETE, без existsById и загрузки сущности
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(userRepository.existsById(johnId));
+    }
+
+    @Test
+    void deleteUser_ShouldThrowNotFound_WhenNoRowDeleted() {
+        // Given
+        statistics.clear();
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(12345L));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteUsers_ShouldDeleteAllInSingleStatement() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        Long janeId = userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25)).getContent().getId();
+        userService.createUser(new UserRequest("Bob Brown", "bob@example.com", 40));
+        statistics.clear();
+
+        // When
+        UserBulkDeleteResponse response = userService.deleteUsers(List.of(johnId, janeId, janeId, 12345L));
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, response.getRequested());
+        assertEquals(2, response.getDeleted());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void getUsersPageETag_ShouldMatchRenderedPage_AndChangeAfterUpdate() {
+        // Given
+        UserResponse john = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent();
+        userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25));
+        userService.createUser(new UserRequest("Bob Brown", "bob@example.com", 40));
+        statistics.clear();
+
+        // When
+        String eTag = userService.getUsersPageETag(null, null, 2);
+
+        // Then: один лёгкий SELECT id, version, и тот же отпечаток, что у полной страницы
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(UserETags.ofPage(userService.getAllUsers(null, null, 2)), eTag);
+
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAge(31);
+        userService.patchUser(john.getId(), patch, null);
+        assertNotEquals(eTag, userService.getUsersPageETag(null, null, 2));
+    }
+
+    @Test
+    void getUserRecords_ShouldReturnSameWindowAsHalPage() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        Long janeId = userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25)).getContent().getId();
+        Long bobId = userService.createUser(new UserRequest("Bob Brown", "bob@example.com", 40)).getContent().getId();
+
+        // When
+        UserRecordPage first = userService.getUserRecords(null, null, 2);
+        UserRecordPage last = userService.getUserRecords(first.nextAfter(), null, 2);
+        UserRecordPage backwards = userService.getUserRecords(null, bobId, 2);
+
+        // Then
+        assertEquals(List.of(johnId, janeId), first.users().stream().map(UserRecord::id).toList());
+        assertEquals(janeId, first.nextAfter());
+        assertNull(first.prevBefore());
+        assertEquals(List.of(bobId), last.users().stream().map(UserRecord::id).toList());
+        assertNull(last.nextAfter());
+        assertEquals(bobId, last.prevBefore());
+        assertEquals(List.of(johnId, janeId), backwards.users().stream().map(UserRecord::id).toList());
+        assertEquals(UserETags.ofPage(userService.getAllUsers(null, null, 2)), UserETags.ofPage(first));
+    }
+
+    @Test
+    void readPaths_ShouldNotHydrateEntities() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25));
+        statistics.clear();
+
+        // When
+        UserResponse john = userService.getUserById(johnId).getContent();
+        int pageSize = userService.getAllUsers(null, null, 20).getContent().size();
+        List<Long> exported = new ArrayList<>();
+        userService.exportUsers(user -> exported.add(user.id()));
+
+        // Then: проекции в UserRecord, ни одной управляемой сущности
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals("john@example.com", john.getEmail());
+        assertEquals(2, pageSize);
+        assertEquals(2, exported.size());
+    }
+
+    @Test
+    void searchUsers_ShouldMatchNamePrefixIgnoringCase_AndPageByKeyset() {
+        // Given
+        Long johnId = userService.createUser(new UserRequest("John Doe", "john@example.com", 30)).getContent().getId();
+        Long johnnyId = userService.createUser(new UserRequest("johnny Cash", "johnny@example.com", 40)).getContent().getId();
+        userService.createUser(new UserRequest("Jane Smith", "jane@example.com", 25));
+        UserSearchCriteria criteria = new UserSearchCriteria("JOH", null, null, null, null);
+        statistics.clear();
+
+        // When
+        CollectionModel<EntityModel<UserResponse>> first = userService.searchUsers(criteria, null, null, 1);
+
+        // Then: один SELECT в UserRecord, следующая страница — по курсору с теми же фильтрами
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of(johnId), ids(first));
+        assertTrue(first.getLink(IanaLinkRelations.NEXT).orElseThrow().getHref()
+                .endsWith("/api/users/search?name=JOH&after=" + johnId + "&size=1"));
+
+        CollectionModel<EntityModel<UserResponse>> second = userService.searchUsers(criteria, johnId, null, 1);
+        assertEquals(List.of(johnnyId), ids(second));
+        assertTrue(second.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertEquals(List.of(johnId), ids(userService.searchUsers(criteria, null, johnnyId, 1)));
+    }
+
+    @Test
+    void searchUsers_ShouldCombineAgeAndCreatedAtFilters() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User young = createdAt(new User("Young", "young@example.com", 20), now.minusDays(1));
+        User old = createdAt(new User("Old", "old@example.com", 60), now.minusDays(1));
+        User recent = createdAt(new User("Recent", "recent@example.com", 30), now);
+        User early = createdAt(new User("Early", "early@example.com", 30), now.minusDays(10));
+        userRepository.saveAll(List.of(young, old, recent, early));
+
+        // When
+        CollectionModel<EntityModel<UserResponse>> result = userService.searchUsers(
+                new UserSearchCriteria(null, 25, 65, now.minusDays(2), now), null, null, 20);
+
+        // Then: createdTo не включительно, возраст — включительно
+        assertEquals(List.of(old.getId()), ids(result));
+    }
+
+    @Test
+    void searchUsers_ShouldTreatLikeWildcardsLiterally() {
+        // Given
+        Long percentId = userService.createUser(new UserRequest("100% Pure", "pure@example.com", 30)).getContent().getId();
+        userService.createUser(new UserRequest("1000 Suns", "suns@example.com", 30));
+        Long underscoreId = userService.createUser(new UserRequest("a_b", "ab@example.com", 30)).getContent().getId();
+        userService.createUser(new UserRequest("axb", "axb@example.com", 30));
+
+        // When & Then
+        assertEquals(List.of(percentId),
+                ids(userService.searchUsers(new UserSearchCriteria("100%", null, null, null, null), null, null, 20)));
+        assertEquals(List.of(underscoreId),
+                ids(userService.searchUsers(new UserSearchCriteria("a_", null, null, null, null), null, null, 20)));
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() {
+    void aggregateUsers_ShouldGroupByAgeCreationDayAndEmailDomain() {
         // Given
-        User user1 = new User("John Doe", "john@example.com", 30);
-        user1.setId(1L);
-        User user2 = new User("Jane Smith", "jane@example.com", 25);
-        user2.setId(2L);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        userRepository.saveAll(List.of(
+                createdAt(new User("John", "john@example.com", 30), now),
+                createdAt(new User("Jane", "jane@Example.COM", 30), now.minusDays(1)),
+                createdAt(new User("Bob", "bob@mail.test", 45), now.minusDays(1))));
+
+        // When
+        UserAggregates aggregates = userService.aggregateUsers();
+
+        // Then
+        assertEquals(3, aggregates.total());
+        assertEquals(Map.of(30, 2L, 45, 1L), aggregates.byAge());
+        assertEquals(Map.of(now.toLocalDate(), 1L, now.toLocalDate().minusDays(1), 2L), aggregates.byCreatedDate());
+        assertEquals(Map.of("example.com", 2L, "mail.test", 1L), aggregates.byEmailDomain());
+    }
+
+    @Test
+    void bulkDelete_ShouldDeleteMatchingUsersChunkByChunk() {
+        // Given: пачки по 2, подходят три пользователя из пяти
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<User> users = userRepository.saveAll(List.of(
+                createdAt(new User("Old 1", "old1@example.com", 30), now.minusDays(10)),
+                createdAt(new User("New 1", "new1@example.com", 30), now),
+                createdAt(new User("Old 2", "old2@example.com", 30), now.minusDays(9)),
+                createdAt(new User("Old 3", "old3@example.com", 30), now.minusDays(8)),
+                createdAt(new User("New 2", "new2@example.com", 30), now)));
+        Long oldId = users.get(0).getId();
+        userService.getUserById(oldId);
+        statistics.clear();
+
+        // When
+        UserBulkOperationResponse response = bulkService(2)
+                .deleteUsers(new UserBulkFilter(null, null, now.minusDays(1), null, null));
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        // Then: на пачку SELECT ... FOR UPDATE и один DELETE
+        assertEquals(3, response.getAffected());
+        assertEquals(2, response.getChunks());
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(2, userRepository.count());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(oldId));
+    }
+
+    @Test
+    void bulkUpdate_ShouldShiftAgeOfCohort_AndRefreshCachedUsers() {
+        // Given
+        Long id20 = userService.createUser(new UserRequest("A", "a@example.com", 20)).getContent().getId();
+        Long id25 = userService.createUser(new UserRequest("B", "b@example.com", 25)).getContent().getId();
+        Long id40 = userService.createUser(new UserRequest("C", "c@example.com", 40)).getContent().getId();
+        userService.getUserById(id20);
 
         // When
-        List<UserResponse> result = userService.getAllUsers();
+        UserBulkOperationResponse response = bulkService(2).updateUsers(
+                new UserBulkUpdateRequest(new UserBulkFilter(null, null, null, 20, 29), null, 1));
 
         // Then
-        assertEquals(2, result.size());
-        verify(userRepository).findAll();
+        assertEquals(2, response.getAffected());
+        UserResponse updated = userService.getUserById(id20).getContent();
+        assertEquals(21, updated.getAge());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(26, userService.getUserById(id25).getContent().getAge());
+        assertEquals(40, userService.getUserById(id40).getContent().getAge());
     }
 
     @Test
-    void getUserById_ShouldReturnUser_WhenUserExists() {
+    void bulkUpdate_ShouldSkipUsersWhoseAgeWouldNotStayPositive() {
         // Given
-        User user = new User("John Doe", "john@example.com", 30);
-        user.setId(1L);
+        Long youngId = userService.createUser(new UserRequest("Young", "young@example.com", 2)).getContent().getId();
+        Long olderId = userService.createUser(new UserRequest("Older", "older@example.com", 5)).getContent().getId();
+
+        // When
+        UserBulkOperationResponse response = bulkService(10).updateUsers(
+                new UserBulkUpdateRequest(new UserBulkFilter(List.of(youngId, olderId), null, null, null, null), null, -3));
+
+        // Then
+        assertEquals(1, response.getAffected());
+        assertEquals(2, userService.getUserById(youngId).getContent().getAge());
+        assertEquals(2, userService.getUserById(olderId).getContent().getAge());
+    }
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    @Test
+    void bulkUpdate_ShouldSkipUsersWhoseAgeWouldOverflow() {
+        // Given
+        Long oldestId = userService.createUser(new UserRequest("Oldest", "oldest@example.com", Integer.MAX_VALUE - 100))
+                .getContent().getId();
+        Long youngId = userService.createUser(new UserRequest("Young", "young@example.com", 20)).getContent().getId();
 
         // When
-        UserResponse result = userService.getUserById(1L);
+        UserBulkOperationResponse response = bulkService(10).updateUsers(new UserBulkUpdateRequest(
+                new UserBulkFilter(List.of(oldestId, youngId), null, null, null, null), null, UserBulkUpdateRequest.MAX_AGE_DELTA));
 
         // Then
-        assertNotNull(result);
-        assertEquals(1L, result.getId());
-        assertEquals("John Doe", result.getName());
+        assertEquals(1, response.getAffected());
+        assertEquals(Integer.MAX_VALUE - 100, userService.getUserById(oldestId).getContent().getAge());
+        assertEquals(220, userService.getUserById(youngId).getContent().getAge());
+    }
+
+    @Test
+    void bulkUpdate_ShouldRejectAgeDeltaOutOfBounds() {
+        // Given
+        UserBulkFilter filter = new UserBulkFilter(null, null, null, 18, null);
+
+        // When & Then: Integer.MIN_VALUE раньше переполнял границу 1 - ageDelta и задевал всех
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkService(10).updateUsers(new UserBulkUpdateRequest(filter, null, Integer.MIN_VALUE)));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkService(10).updateUsers(new UserBulkUpdateRequest(filter, null, UserBulkUpdateRequest.MAX_AGE_DELTA + 1)));
     }
 
     @Test
-    void getUserById_ShouldThrowException_WhenUserNotExists() {
+    void bulkUpdate_ShouldRequireExactlyOneOfAgeAndAgeDelta() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        UserBulkFilter filter = new UserBulkFilter(null, null, null, 18, null);
 
         // When & Then
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> userService.getUserById(1L)
-        );
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkService(10).updateUsers(new UserBulkUpdateRequest(filter, 30, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkService(10).updateUsers(new UserBulkUpdateRequest(filter, null, null)));
+    }
+
+    private static User createdAt(User user, LocalDateTime createdAt) {
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+
+    private UserBulkService bulkService(int chunkSize) {
+        return new UserBulkService(userRepository, transactionTemplate, eventPublisher, chunkSize);
+    }
 
-        assertEquals("User not found with id: 1", exception.getMessage());
+    private static List<Long> ids(CollectionModel<EntityModel<UserResponse>> page) {
+        return page.getContent().stream().map(model -> model.getContent().getId()).toList();
     }
-}
\ No newline at end of file
+}
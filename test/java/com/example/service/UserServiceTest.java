@@ -1,22 +1,42 @@
 package com.example.service;
 
+import com.example.controller.UserLinkFactory;
+import com.example.dto.UserBatchItemResult;
+import com.example.dto.UserBatchResponse;
+import com.example.dto.UserPatchRequest;
+import com.example.dto.UserRecord;
 import com.example.dto.UserRequest;
 import com.example.dto.UserResponse;
 import com.example.entity.User;
+import com.example.exception.UserNotFoundException;
+import com.example.exception.VersionConflictException;
 import com.example.repository.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +45,18 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private UserLinkFactory userLinkFactory = new UserLinkFactory();
+
+    @Spy
+    private UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(1));
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -36,11 +68,10 @@ class UserServiceTest {
         user.setId(1L);
         user.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         // When
-        UserResponse result = userService.createUser(userRequest);
+        UserResponse result = userService.createUser(userRequest).getContent();
 
         // Then
         assertNotNull(result);
@@ -49,8 +80,8 @@ class UserServiceTest {
         assertEquals("john@example.com", result.getEmail());
         assertEquals(30, result.getAge());
 
-        verify(userRepository).existsByEmail("john@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(any());
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -58,7 +89,8 @@ class UserServiceTest {
         // Given
         UserRequest userRequest = new UserRequest("John Doe", "john@example.com", 30);
 
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key", new ConstraintViolationException("duplicate key", null, "uk_users_email")));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(
@@ -67,37 +99,110 @@ class UserServiceTest {
         );
 
         assertEquals("User with email john@example.com already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() {
+    void createUsers_ShouldReportResultPerItem() {
         // Given
-        User user1 = new User("John Doe", "john@example.com", 30);
-        user1.setId(1L);
-        User user2 = new User("Jane Smith", "jane@example.com", 25);
-        user2.setId(2L);
+        List<UserRequest> userRequests = Arrays.asList(
+                new UserRequest("John Doe", "john@example.com", 30),
+                new UserRequest("", "invalid-email", -5),
+                new UserRequest("John Again", "john@example.com", 31),
+                new UserRequest("Taken", "taken@example.com", 40)
+        );
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.findExistingEmails(any())).thenReturn(List.of("taken@example.com"));
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            long id = 1;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users;
+        });
 
         // When
-        List<UserResponse> result = userService.getAllUsers();
+        UserBatchResponse result = userService.createUsers(userRequests);
 
         // Then
-        assertEquals(2, result.size());
-        verify(userRepository).findAll();
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getInvalid());
+        assertEquals(UserBatchItemResult.Status.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(1L, result.getResults().get(0).getId());
+        assertEquals(UserBatchItemResult.Status.INVALID, result.getResults().get(1).getStatus());
+        assertEquals(UserBatchItemResult.Status.DUPLICATE, result.getResults().get(2).getStatus());
+        assertEquals(UserBatchItemResult.Status.DUPLICATE, result.getResults().get(3).getStatus());
+
+        verify(userRepository).findExistingEmails(Set.of("john@example.com", "taken@example.com"));
     }
 
     @Test
-    void getUserById_ShouldReturnUser_WhenUserExists() {
+    void updateUser_ShouldThrowException_WhenEmailTakenByAnotherUser() {
         // Given
         User user = new User("John Doe", "john@example.com", 30);
         user.setId(1L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key", new ConstraintViolationException("duplicate key", null, "uk_users_email")));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.updateUser(1L, new UserRequest("John Doe", "jane@example.com", 30))
+        );
+
+        assertEquals("User with email jane@example.com already exists", exception.getMessage());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnAllUsers() {
+        // Given
+        UserRecord user1 = new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+        UserRecord user2 = new UserRecord(2L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now(), 0L);
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21), UserRecord.class))
+                .thenReturn(Arrays.asList(user1, user2));
+
+        // When
+        CollectionModel<EntityModel<UserResponse>> result = userService.getAllUsers(null, null, 20);
+
+        // Then
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.getLink(IanaLinkRelations.NEXT).isEmpty());
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21), UserRecord.class);
+    }
+
+    @Test
+    void getAllUsers_ShouldAddNextLink_WhenMoreUsersExist() {
+        // Given
+        UserRecord user1 = new UserRecord(11L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+        UserRecord user2 = new UserRecord(12L, "Jane Smith", "jane@example.com", 25, LocalDateTime.now(), 0L);
+        UserRecord user3 = new UserRecord(13L, "Bob Brown", "bob@example.com", 40, LocalDateTime.now(), 0L);
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3), UserRecord.class))
+                .thenReturn(Arrays.asList(user1, user2, user3));
+
+        // When
+        CollectionModel<EntityModel<UserResponse>> result = userService.getAllUsers(10L, null, 2);
+
+        // Then
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.getLink(IanaLinkRelations.NEXT).orElseThrow().getHref().contains("after=12"));
+        assertTrue(result.getLink(IanaLinkRelations.PREV).orElseThrow().getHref().contains("before=11"));
+    }
+
+    @Test
+    void getUserById_ShouldReturnUser_WhenUserExists() {
+        // Given
+        UserRecord user = new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.findRecordById(1L)).thenReturn(Optional.of(user));
 
         // When
-        UserResponse result = userService.getUserById(1L);
+        UserResponse result = userService.getUserById(1L).getContent();
 
         // Then
         assertNotNull(result);
@@ -105,10 +210,42 @@ class UserServiceTest {
         assertEquals("John Doe", result.getName());
     }
 
+    @Test
+    void getUserById_ShouldReadThroughCache() {
+        // Given
+        UserRecord user = new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 0L);
+
+        when(userRepository.findRecordById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        userService.getUserById(1L);
+        EntityModel<UserResponse> result = userService.getUserById(1L);
+
+        // Then
+        assertEquals("John Doe", result.getContent().getName());
+        verify(userRepository, times(1)).findRecordById(1L);
+    }
+
+    @Test
+    void getUserVersion_ShouldUseCache_WhenUserIsCached() {
+        // Given
+        UserRecord user = new UserRecord(1L, "John Doe", "john@example.com", 30, LocalDateTime.now(), 4L);
+
+        when(userRepository.findRecordById(1L)).thenReturn(Optional.of(user));
+        userService.getUserById(1L);
+
+        // When
+        Long version = userService.getUserVersion(1L);
+
+        // Then
+        assertEquals(4L, version);
+        verify(userRepository, never()).findVersionById(any());
+    }
+
     @Test
     void getUserById_ShouldThrowException_WhenUserNotExists() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findRecordById(1L)).thenReturn(Optional.empty());
 
         // When & Then
         IllegalArgumentException exception = assertThrows(
@@ -118,4 +255,37 @@ class UserServiceTest {
 
         assertEquals("User not found with id: 1", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void patchUser_ShouldThrowVersionConflict_WhenNoRowMatchesVersion() {
+        // Given
+        UserPatchRequest patchRequest = new UserPatchRequest();
+        patchRequest.setAge(31);
+
+        when(userRepository.patchIfVersion(1L, 2L, null, null, 31)).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        VersionConflictException exception = assertThrows(
+                VersionConflictException.class,
+                () -> userService.patchUser(1L, patchRequest, 2L)
+        );
+
+        assertEquals(3L, exception.getCurrentVersion());
+        verify(userRepository, never()).findRecordById(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchUser_ShouldThrowNotFound_WhenUserNotExists() {
+        // Given
+        UserPatchRequest patchRequest = new UserPatchRequest();
+        patchRequest.setAge(31);
+
+        when(userRepository.patch(1L, null, null, 31)).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.patchUser(1L, patchRequest, null));
+    }
+}
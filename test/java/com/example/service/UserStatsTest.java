@@ -0,0 +1,182 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserStatsResponse;
+import com.example.dto.UserStatsResponse.AgeBucket;
+import com.example.dto.UserStatsResponse.DayCount;
+import com.example.dto.UserStatsResponse.DomainCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserStatsTest {
+
+    private static final LocalDateTime TODAY = LocalDateTime.of(2024, 3, 10, 12, 0);
+    private static final LocalDateTime YESTERDAY = TODAY.minusDays(1);
+
+    private final UserService userService = mock(UserService.class);
+
+    private UserStats stats;
+
+    @BeforeEach
+    void setUp() {
+        List<UserRecord> users = List.of(
+                record(1L, "john@example.com", 30, YESTERDAY),
+                record(2L, "jane@Example.com", 17, TODAY),
+                record(3L, "bob@mail.test", 70, TODAY));
+        doAnswer(invocation -> {
+            Consumer<UserRecord> consumer = invocation.getArgument(0);
+            users.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        Clock clock = Clock.fixed(TODAY.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        stats = new UserStats(userService, clock, 3, 2, Duration.ZERO, Duration.ofHours(1));
+        stats.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stats.stop();
+    }
+
+    @Test
+    void getStats_ShouldReturnCountersLoadedAtStart() {
+        // When
+        UserStatsResponse response = stats.getStats();
+
+        // Then
+        assertEquals(3, response.total());
+        assertEquals(1, ageCount(response, "0-17"));
+        assertEquals(1, ageCount(response, "25-34"));
+        assertEquals(1, ageCount(response, "65+"));
+        assertEquals(List.of(
+                new DayCount(TODAY.toLocalDate().minusDays(2), 0),
+                new DayCount(YESTERDAY.toLocalDate(), 1),
+                new DayCount(TODAY.toLocalDate(), 2)), response.createdPerDay());
+        assertEquals(List.of(new DomainCount("example.com", 2), new DomainCount("mail.test", 1)),
+                response.topEmailDomains());
+        assertEquals(TODAY, response.reconciledAt());
+    }
+
+    @Test
+    void onUserChanged_ShouldMoveCountersOnUpdateAndDelete() {
+        // When: возраст и домен меняются, затем удаляется пользователь, о котором известно только id
+        stats.onUserChanged(UserChangedEvent.updated(record(1L, "john@mail.test", 40, YESTERDAY)));
+        stats.onUserChanged(UserChangedEvent.deleted(2L));
+        stats.onUserChanged(UserChangedEvent.deleted(99L));
+
+        // Then
+        UserStatsResponse response = stats.getStats();
+        assertEquals(2, response.total());
+        assertEquals(0, ageCount(response, "0-17"));
+        assertEquals(0, ageCount(response, "25-34"));
+        assertEquals(1, ageCount(response, "35-44"));
+        assertEquals(1, response.createdPerDay().get(2).count());
+        assertEquals(List.of(new DomainCount("mail.test", 2)), response.topEmailDomains());
+    }
+
+    @Test
+    void onUserChanged_ShouldCountRepeatedCreateOnce() {
+        // When
+        UserRecord alice = record(4L, "alice@example.com", 25, TODAY);
+        stats.onUserChanged(UserChangedEvent.created(alice));
+        stats.onUserChanged(UserChangedEvent.created(alice));
+
+        // Then
+        assertEquals(4, stats.getStats().total());
+        assertEquals(3, stats.getStats().createdPerDay().get(2).count());
+    }
+
+    @Test
+    void onUserChanged_ShouldKeepCountsExact_WhenWritersRunConcurrently() throws Exception {
+        // Given: каждый поток создаёт своих пользователей на новых доменах, меняет их возраст и удаляет половину
+        int threads = 8;
+        int usersPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long firstId = 100 + (long) t * usersPerThread;
+            String domain = "d" + t + ".test";
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (long id = firstId; id < firstId + usersPerThread; id++) {
+                    stats.onUserChanged(UserChangedEvent.created(record(id, "u" + id + "@" + domain, 20, TODAY)));
+                    stats.onUserChanged(UserChangedEvent.updated(record(id, "u" + id + "@" + domain, 50, TODAY)));
+                    if (id % 2 == 0) {
+                        stats.onUserChanged(UserChangedEvent.deleted(id));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        UserStatsResponse response = stats.getStats();
+        assertEquals(3 + threads * usersPerThread / 2, response.total());
+        assertEquals(0, ageCount(response, "18-24"));
+        assertEquals(threads * usersPerThread / 2, ageCount(response, "45-54"));
+        assertEquals(2 + threads * usersPerThread / 2, response.createdPerDay().get(2).count());
+    }
+
+    @Test
+    void reconcile_ShouldAlignCountersWithDatabase() {
+        // Given: в БД есть пользователь, созданный мимо этого экземпляра, и нет пользователя 3
+        when(userService.aggregateUsers()).thenReturn(new UserAggregates(3,
+                Map.of(30, 1L, 17, 1L, 50, 1L),
+                Map.of(YESTERDAY.toLocalDate(), 2L, TODAY.toLocalDate(), 1L),
+                Map.of("example.com", 2L, "corp.test", 1L)));
+
+        // When
+        stats.reconcile();
+
+        // Then
+        UserStatsResponse response = stats.getStats();
+        assertEquals(3, response.total());
+        assertEquals(0, ageCount(response, "65+"));
+        assertEquals(1, ageCount(response, "45-54"));
+        assertEquals(2, response.createdPerDay().get(1).count());
+        assertEquals(1, response.createdPerDay().get(2).count());
+        assertEquals(List.of(new DomainCount("example.com", 2), new DomainCount("corp.test", 1)),
+                response.topEmailDomains());
+    }
+
+    private static long ageCount(UserStatsResponse response, String range) {
+        return response.ageHistogram().stream()
+                .filter(bucket -> bucket.range().equals(range))
+                .mapToLong(AgeBucket::count)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static UserRecord record(Long id, String email, Integer age, LocalDateTime createdAt) {
+        return new UserRecord(id, "User " + id, email, age, createdAt, 0L);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.service;
+
+import com.example.dto.UserRecord;
+import com.example.dto.UserSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class UserSuggestIndexTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    private UserSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<UserRecord> users = List.of(
+                record(1L, "Bob Johnson", "bob@example.com"),
+                record(2L, "John Doe", "jdoe@example.com"),
+                record(3L, "Mary Smith", "john.smith@example.com"),
+                record(4L, "Ajohn Brown", "brown@example.com"),
+                record(5L, "Jane Roe", "jane@example.com"));
+        doAnswer(invocation -> {
+            Consumer<UserRecord> consumer = invocation.getArgument(0);
+            users.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        index = new UserSuggestIndex(userService);
+        index.start();
+    }
+
+    @Test
+    void suggest_ShouldRankNameStartThenNameWordThenEmailThenSubstring() {
+        // When
+        List<UserSuggestion> suggestions = index.suggest("john", 10);
+
+        // Then
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(suggestions));
+        assertEquals("John Doe", suggestions.get(0).name());
+    }
+
+    @Test
+    void suggest_ShouldMatchWordStartsForTwoCharacterQuery() {
+        // When
+        List<UserSuggestion> suggestions = index.suggest("Jo", 10);
+
+        // Then: "Ajohn" начинается не с "jo", поэтому не попадает
+        assertEquals(List.of(2L, 1L, 3L), ids(suggestions));
+    }
+
+    @Test
+    void suggest_ShouldIgnoreCaseAndPunctuation() {
+        // When & Then
+        assertEquals(List.of(3L), ids(index.suggest("JOHN.SMITH", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("john d", 10)));
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        // When
+        List<UserSuggestion> suggestions = index.suggest("john", 2);
+
+        // Then
+        assertEquals(List.of(2L, 1L), ids(suggestions));
+    }
+
+    @Test
+    void suggest_ShouldRejectShortQuery() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> index.suggest(" j ", 10));
+    }
+
+    @Test
+    void onUserChanged_ShouldApplyCreateUpdateAndDelete() {
+        // When
+        index.onUserChanged(UserChangedEvent.created(record(6L, "Johanna Berg", "jb@example.com")));
+        index.onUserChanged(UserChangedEvent.updated(record(2L, "Jack Doe", "jack@example.com")));
+        index.onUserChanged(UserChangedEvent.deleted(1L));
+
+        // Then
+        assertEquals(List.of(6L, 3L, 4L), ids(index.suggest("joh", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("jack", 10)));
+        assertTrue(index.suggest("bob", 10).isEmpty());
+    }
+
+    @Test
+    void onUserChanged_ShouldKeepResultsAfterCompaction() {
+        // Given: переименований больше, чем живых записей, — индекс перестраивается
+        for (int i = 0; i < 3000; i++) {
+            index.onUserChanged(UserChangedEvent.updated(record(5L, "Jane Roe " + i, "jane@example.com")));
+        }
+
+        // When
+        List<UserSuggestion> suggestions = index.suggest("jane", 10);
+
+        // Then
+        assertEquals(1, suggestions.size());
+        assertEquals("Jane Roe 2999", suggestions.get(0).name());
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.suggest("john", 10)));
+    }
+
+    private static List<Long> ids(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::id).toList();
+    }
+
+    private static UserRecord record(Long id, String name, String email) {
+        return new UserRecord(id, name, email, 30, LocalDateTime.now(), 0L);
+    }
+}